@@ -0,0 +1,98 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.MGraphic;
+import mgraphic.functions.ReservedNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding a function from points and from columns, sorted by abcises or shuffled.
+ * The columns are kept by the function, so they are copied again before each call, the copy is not measured.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class AddFunctionBenchmark {
+	
+	@Param({"1000", "1000000", "10000000"})
+	public int size;
+	
+	@Param({"true", "false"})
+	public boolean sorted;
+	
+	private MGraphic graphic;
+	private Point2D.Double[] points;
+	private double[] xs;
+	private double[] ys;
+	private double[] xsCopy;
+	private double[] ysCopy;
+	
+	@Setup(Level.Trial)
+	public void setUp(){
+		
+		graphic = new MGraphic(-10, -10, 10, 10, 1, 1, false, false, false, false);
+		
+		Random random = new Random(size);
+		xs = new double[size];
+		ys = new double[size];
+		for(int i=0; i<size; i++){
+			xs[i] = i*0.001;
+			ys[i] = Math.sin(xs[i])+random.nextGaussian()*0.01;
+		}
+		
+		if(!sorted)
+			for(int i=size-1; i>0; i--){
+				int j = random.nextInt(i+1);
+				double x = xs[i], y = ys[i];
+				xs[i] = xs[j]; ys[i] = ys[j];
+				xs[j] = x; ys[j] = y;
+			}
+		
+		points = new Point2D.Double[size];
+		for(int i=0; i<size; i++)
+			points[i] = new Point2D.Double(xs[i], ys[i]);
+		
+		xsCopy = new double[size];
+		ysCopy = new double[size];
+		
+	}
+	
+	@Setup(Level.Invocation)
+	public void copyColumns(){
+		System.arraycopy(xs, 0, xsCopy, 0, size);
+		System.arraycopy(ys, 0, ysCopy, 0, size);
+	}
+	
+	@Benchmark
+	public String points() throws ReservedNameException {
+		return graphic.addFunction(points, "f", Color.BLUE);
+	}
+	
+	@Benchmark
+	public String columns() throws ReservedNameException {
+		return graphic.addFunction(xsCopy, ysCopy, "f", Color.BLUE);
+	}
+	
+}
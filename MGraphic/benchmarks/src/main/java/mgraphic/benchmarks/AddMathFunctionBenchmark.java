@@ -0,0 +1,99 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.MGraphicFunctionPlot;
+import mgraphic.MGraphicFunctionPlot.MathFunction;
+import mgraphic.MGraphicFunctionPlot.Precision;
+import mgraphic.MGraphicFunctionPlot.Sampling;
+import mgraphic.functions.ReservedNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sampling and adding a mathematical function at each precision, uniformly and adaptively, with the function 
+ * implementing only calculateFunction, also calculate or also evaluate.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class AddMathFunctionBenchmark {
+	
+	@Param({"VERY_HIGH", "HIGH", "MEDIUM", "LOW"})
+	public Precision precision;
+	
+	@Param({"UNIFORM", "ADAPTIVE"})
+	public Sampling sampling;
+	
+	@Param({"VARARGS", "SCALAR", "BATCH"})
+	public String contract;
+	
+	private MGraphicFunctionPlot graphic;
+	private MathFunction function;
+	
+	@Setup(Level.Trial)
+	public void setUp(){
+		
+		graphic = new MGraphicFunctionPlot(-10, -2, 10, 2, 1, 0.5, false, false, false, false);
+		graphic.setSampling(sampling);
+		
+		if("VARARGS".equals(contract))
+			function = new MathFunction(-10, 10, -2, 2, Color.BLUE, precision, false) {
+				@Override
+				public double calculateFunction(double... parameters) {
+					return Math.sin(parameters[0])*Math.exp(-0.1*parameters[0]*parameters[0]);
+				}
+				@Override
+				public String toString() { return "sin(x)*e^(-0.1*x^2)"; }
+			};
+		else if("SCALAR".equals(contract))
+			function = new MathFunction(-10, 10, -2, 2, Color.BLUE, precision, false) {
+				@Override
+				public double calculateFunction(double... parameters) { return calculate(parameters[0]); }
+				@Override
+				public double calculate(double x) { return Math.sin(x)*Math.exp(-0.1*x*x); }
+				@Override
+				public String toString() { return "sin(x)*e^(-0.1*x^2)"; }
+			};
+		else
+			function = new MathFunction(-10, 10, -2, 2, Color.BLUE, precision, false) {
+				@Override
+				public double calculateFunction(double... parameters) { return calculate(parameters[0]); }
+				@Override
+				public double calculate(double x) { return Math.sin(x)*Math.exp(-0.1*x*x); }
+				@Override
+				public void evaluate(double[] xs, double[] out, int from, int to) {
+					for(int i=from; i<to; i++)
+						out[i] = Math.sin(xs[i])*Math.exp(-0.1*xs[i]*xs[i]);
+				}
+				@Override
+				public String toString() { return "sin(x)*e^(-0.1*x^2)"; }
+			};
+		
+	}
+	
+	@Benchmark
+	public MGraphicFunctionPlot addMathFunction() throws ReservedNameException {
+		graphic.addMathFunction(function, false);
+		return graphic;
+	}
+	
+}
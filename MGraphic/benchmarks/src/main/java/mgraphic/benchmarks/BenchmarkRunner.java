@@ -0,0 +1,33 @@
+package mgraphic.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the JMH command line options, always with the gc profiler so that the bytes allocated by 
+ * operation are reported with the times.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class BenchmarkRunner {
+	
+	public static void main(String[] args) throws Exception {
+		
+		CommandLineOptions options = new CommandLineOptions(args);
+		
+		if(options.shouldHelp()){
+			options.showHelp();
+			return;
+		}
+		
+		Runner runner = new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build());
+		
+		if(options.shouldList()) runner.list();
+		else runner.run();
+		
+	}
+	
+}
@@ -0,0 +1,84 @@
+package mgraphic.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.expression.Expression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluating an expression at a block of abcises compiled, interpreted walking its tree and written by hand in java,
+ * for a polynomial and for an expression of transcendental functions.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g"})
+public class ExpressionBenchmark {
+	
+	private static final String POLYNOMIAL = "(x^3-2*x+1)/(x^2+1)";
+	private static final String TRANSCENDENTAL = "sin(x)*exp(-0.1*x^2)+0.5*cos(3*x)";
+	
+	@Param({POLYNOMIAL, TRANSCENDENTAL})
+	public String source;
+	
+	private Expression expression;
+	private double[] xs, out;
+	
+	@Setup(Level.Trial)
+	public void setUp(){
+		
+		expression = Expression.parse(source);
+		
+		xs = new double[1024];
+		out = new double[xs.length];
+		for(int i=0; i<xs.length; i++)
+			xs[i] = -10+20.0*i/xs.length;
+		
+	}
+	
+	@Benchmark
+	public double[] compiled() {
+		expression.evaluate(xs, out, 0, xs.length);
+		return out;
+	}
+	
+	@Benchmark
+	public double[] interpreted() {
+		for(int i=0; i<xs.length; i++)
+			out[i] = expression.interpret(xs[i]);
+		return out;
+	}
+	
+	@Benchmark
+	public double[] handWritten() {
+		if(POLYNOMIAL.equals(source))
+			for(int i=0; i<xs.length; i++){
+				double x = xs[i];
+				out[i] = (x*x*x-2*x+1)/(x*x+1);
+			}
+		else
+			for(int i=0; i<xs.length; i++){
+				double x = xs[i];
+				out[i] = Math.sin(x)*Math.exp(-0.1*(x*x))+0.5*Math.cos(3*x);
+			}
+		return out;
+	}
+	
+}
@@ -0,0 +1,86 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.HoverPoint;
+import mgraphic.MGraphic;
+import mgraphic.functions.ReservedNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finding the point nearest to random positions of a graphic with many noisy functions, the index of the view is 
+ * built before measuring, and building the index again after the view changes.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class HoverBenchmark {
+	
+	private static final int WIDTH = 1000;
+	private static final int HEIGHT = 600;
+	
+	@Param({"200"})
+	public int functions;
+	
+	@Param({"100000", "1000000"})
+	public int size;
+	
+	private MGraphic graphic;
+	private Random random;
+	private int view;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws ReservedNameException {
+		
+		graphic = new MGraphic(-10, -3, 10, 3, 1, 0.5, false, false, false, false);
+		graphic.setSize(WIDTH, HEIGHT);
+		graphic.setSinglePrecision(true);
+		
+		random = new Random(size);
+		for(int function=0; function<functions; function++){
+			double[] xs = new double[size], ys = new double[size];
+			double phase = random.nextDouble()*6;
+			for(int i=0; i<size; i++){
+				xs[i] = -10+20.0*i/size;
+				ys[i] = Math.sin(xs[i]+phase)+random.nextGaussian()*0.02;
+			}
+			graphic.addFunction(xs, ys, "f"+function, Color.BLUE);
+		}
+		
+		graphic.getNearestPoint(WIDTH/2, HEIGHT/2);
+		
+	}
+	
+	@Benchmark
+	public HoverPoint nearest(){
+		return graphic.getNearestPoint(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public HoverPoint rebuild(){
+		graphic.setBounds(-10+(view++%8)*0.5, 10.0, -3.0, 3.0);
+		return graphic.getNearestPoint(WIDTH/2, HEIGHT/2);
+	}
+	
+}
@@ -0,0 +1,93 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.MGraphic;
+import mgraphic.functions.ReservedNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Painting a graphic with three functions into a headless image, in linear and bode mode.
+ * The bounds are set again before each paint so that the layers kept by the graphic are drawn again.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class PaintBenchmark {
+	
+	private static final int WIDTH = 1280;
+	private static final int HEIGHT = 800;
+	
+	@Param({"false", "true"})
+	public boolean bode;
+	
+	@Param({"10000", "1000000"})
+	public int size;
+	
+	private MGraphic graphic;
+	private BufferedImage image;
+	private Graphics2D graphics;
+	private double xMin, xMax;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws ReservedNameException {
+		
+		//In bode mode the bounds of the abcises are decades
+		xMin = bode?-2:0;
+		xMax = bode?3:100;
+		
+		graphic = new MGraphic(xMin, -2, xMax, 2, bode?1:10, 0.5, bode, true, false, true);
+		graphic.setSize(WIDTH, HEIGHT);
+		
+		Random random = new Random(size);
+		Color[] colors = {Color.RED, Color.BLUE, Color.GREEN};
+		
+		for(int function=0; function<colors.length; function++){
+			double[] xs = new double[size], ys = new double[size];
+			for(int i=0; i<size; i++){
+				double t = xMin+(xMax-xMin)*i/size;
+				xs[i] = bode?Math.pow(10, t):t;
+				ys[i] = Math.sin(t*(function+1))+random.nextGaussian()*0.05;
+			}
+			graphic.addFunction(xs, ys, "f"+function, colors[function]);
+		}
+		
+		image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+		
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown(){ graphics.dispose(); }
+	
+	@Benchmark
+	public BufferedImage paint(){
+		graphic.setBounds(xMin, xMax, -2.0, 2.0);
+		graphic.paint(graphics);
+		return image;
+	}
+	
+}
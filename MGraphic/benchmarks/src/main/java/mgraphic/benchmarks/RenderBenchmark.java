@@ -0,0 +1,78 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.Chart;
+import mgraphic.functions.Function;
+import mgraphic.functions.Series;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Charts drawn without a window by second, to an image and to a png, the functions are shared by all the threads 
+ * as they are by a RenderPool. Run with -t to measure several threads.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class RenderBenchmark {
+	
+	@Param({"10000", "1000000"})
+	public int size;
+	
+	private Chart chart;
+	
+	@Setup(Level.Trial)
+	public void setUp(){
+		
+		Random random = new Random(size);
+		List<Function> functions = new ArrayList<Function>();
+		
+		for(int function=0; function<3; function++){
+			double[] xs = new double[size], ys = new double[size];
+			for(int i=0; i<size; i++){
+				xs[i] = 100.0*i/size;
+				ys[i] = Math.sin(xs[i]*(function+1)/5)+random.nextGaussian()*0.05;
+			}
+			functions.add(new Function(Series.valueOf(xs, ys, false), "f"+function, new Color(80*function, 0, 200)));
+		}
+		
+		chart = new Chart(functions, 0, -2, 100, 2, 10, 0.5, false, true, true, 800, 600);
+		
+	}
+	
+	@Benchmark
+	public BufferedImage image(){ return chart.render(); }
+	
+	@Benchmark
+	public int png() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1<<16);
+		chart.writePng(out);
+		return out.size();
+	}
+	
+}
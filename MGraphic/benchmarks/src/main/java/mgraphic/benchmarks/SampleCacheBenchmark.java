@@ -0,0 +1,63 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.MGraphicFunctionPlot;
+import mgraphic.MGraphicFunctionPlot.Precision;
+import mgraphic.SampleCache;
+import mgraphic.expression.ExpressionFunction;
+import mgraphic.functions.ReservedNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding again a mathematical function that was removed, with and without a sample cache.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class SampleCacheBenchmark {
+	
+	@Param({"false", "true"})
+	public boolean cached;
+	
+	private MGraphicFunctionPlot graphic;
+	private ExpressionFunction function;
+	
+	@Setup(Level.Trial)
+	public void setUp(){
+		
+		graphic = new MGraphicFunctionPlot(-10, -2, 10, 2, 1, 0.5, false, false, false, false);
+		if(cached) graphic.setSampleCache(new SampleCache(64<<20));
+		
+		function = new ExpressionFunction("sin(x)*exp(-0.1*x^2)+0.5*atan(cosh(x/3))*log(2+cos(x))", -10, 10, -2, 2, Color.BLUE, 
+				Precision.VERY_HIGH, false);
+		
+	}
+	
+	@Benchmark
+	public MGraphicFunctionPlot addMathFunction() throws ReservedNameException {
+		graphic.addMathFunction(function, false);
+		graphic.removeFunction(function.toString());
+		return graphic;
+	}
+	
+}
@@ -0,0 +1,84 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import mgraphic.Chart;
+import mgraphic.RenderPool;
+import mgraphic.functions.Function;
+import mgraphic.functions.Series;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Drawing a large bode chart in one piece and divided in tiles drawn by a RenderPool with a thread by processor.
+ * A tile size of 0 draws the chart in one piece.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "-Djava.awt.headless=true"})
+public class TileBenchmark {
+	
+	@Param({"8192"})
+	public int width;
+	
+	@Param({"0", "512", "1024"})
+	public int tileSize;
+	
+	private Chart chart;
+	private RenderPool pool;
+	
+	@Setup(Level.Trial)
+	public void setUp(){
+		
+		int size = 2000000;
+		Random random = new Random(size);
+		List<Function> functions = new ArrayList<Function>();
+		
+		for(int function=0; function<4; function++){
+			double[] xs = new double[size], ys = new double[size];
+			for(int i=0; i<size; i++){
+				double decade = -2+5.0*i/size;
+				xs[i] = Math.pow(10, decade);
+				ys[i] = Math.sin(decade*(function+1))*(function+1)/2+random.nextGaussian()*0.05;
+			}
+			functions.add(new Function(Series.valueOf(xs, ys, false), "f"+function, new Color(60*function, 20, 200)));
+		}
+		
+		chart = new Chart(functions, -2, -3, 3, 3, 1, 0.5, true, true, true, width, width);
+		pool = new RenderPool();
+		
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown(){ pool.shutdown(); }
+	
+	@Benchmark
+	public BufferedImage render() throws InterruptedException, ExecutionException {
+		return tileSize==0?chart.render():pool.render(chart, tileSize);
+	}
+	
+}
@@ -0,0 +1,94 @@
+package mgraphic.benchmarks;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jxl.read.biff.BiffException;
+import jxl.write.WritableWorkbook;
+import jxl.write.WriteException;
+
+import mgraphic.MGraphic;
+import mgraphic.functions.ReservedNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving four functions to an excel file and loading them again, with saveToWorkBook, which writes labels, 
+ * and with exportToWorkBook, which writes numbers.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class WorkbookBenchmark {
+	
+	private static final int FUNCTIONS = 4;
+	
+	@Param({"1000", "60000"})
+	public int size;
+	
+	@Param({"saveToWorkBook", "exportToWorkBook"})
+	public String writer;
+	
+	private MGraphic graphic;
+	private File file;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws ReservedNameException, IOException {
+		
+		graphic = new MGraphic(-10, -10, 10, 10, 1, 1, false, false, false, false);
+		
+		Random random = new Random(size);
+		for(int function=0; function<FUNCTIONS; function++){
+			double[] xs = new double[size], ys = new double[size];
+			for(int i=0; i<size; i++){
+				xs[i] = i*0.01;
+				ys[i] = random.nextGaussian();
+			}
+			graphic.addFunction(xs, ys, "f"+function, Color.BLUE);
+		}
+		
+		file = File.createTempFile("mgraphic", ".xls");
+		
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown(){ file.delete(); }
+	
+	@Benchmark
+	public MGraphic roundTrip() throws IOException, WriteException, BiffException, ReservedNameException {
+		
+		if(writer.equals("exportToWorkBook")) graphic.exportToWorkBook(file.getPath());
+		else {
+			WritableWorkbook workbook = graphic.saveToWorkBook(file.getPath());
+			workbook.write();
+			workbook.close();
+		}
+		
+		MGraphic loaded = new MGraphic(-10, -10, 10, 10, 1, 1, false, false, false, false);
+		loaded.loadFromWorkBook(file.getPath());
+		return loaded;
+		
+	}
+	
+}
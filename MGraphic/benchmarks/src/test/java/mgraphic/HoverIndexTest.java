@@ -0,0 +1,78 @@
+package mgraphic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mgraphic.functions.DoubleSeries;
+import mgraphic.functions.Function;
+
+import org.junit.Test;
+
+/**
+ * Checks that the point found by the hover index is the nearest one, also when the index is built from a level of
+ * detail whose groups of points span several pixel columns.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class HoverIndexTest {
+	
+	private static final long SEED = 20120101L;
+	private static final int WIDTH = 200, HEIGHT = 200;
+	private static final double ORIGIN_X = 0, ORIGIN_Y = 100, UNIT_X = 200, UNIT_Y = 90;
+	
+	@Test
+	public void findsTheNearestPointOfUnevenlySpacedPoints() {
+		
+		//Most points are in the first pixel, so the index uses a level of detail whose groups are wide elsewhere
+		Random random = new Random(SEED);
+		int dense = 99000, sparse = 1000;
+		double[] xs = new double[dense+sparse], ys = new double[xs.length];
+		for(int i=0; i<dense; i++){
+			xs[i] = 0.001*i/dense;
+			ys[i] = Math.sin(i*0.01);
+		}
+		for(int i=0; i<sparse; i++){
+			xs[dense+i] = 0.001+0.999*Math.pow((i+1.0)/sparse, 2);
+			ys[dense+i] = random.nextDouble()*2-1;
+		}
+		
+		Function function = new Function(new DoubleSeries(xs, ys), "uneven", null);
+		HoverIndex index = new HoverIndex(Arrays.asList(function), 0, WIDTH, HEIGHT, ORIGIN_X, ORIGIN_Y, UNIT_X, UNIT_Y,
+				false, true);
+		
+		for(int i=0; i<5000; i++){
+			
+			double x, y;
+			if(i%2==0){
+				//Near a point left out by the level of detail
+				int point = dense+random.nextInt(sparse);
+				x = ORIGIN_X+xs[point]*UNIT_X+random.nextDouble()*2-1;
+				y = ORIGIN_Y-ys[point]*UNIT_Y+random.nextDouble()*2-1;
+			} else {
+				x = random.nextDouble()*WIDTH;
+				y = random.nextDouble()*HEIGHT;
+			}
+			
+			double radius = 4, best = radius*radius;
+			for(int p=0; p<xs.length; p++){
+				double dx = ORIGIN_X+xs[p]*UNIT_X-x, dy = ORIGIN_Y-ys[p]*UNIT_Y-y;
+				best = Math.min(best, dx*dx+dy*dy);
+			}
+			
+			HoverPoint nearest = index.nearest(x, y, radius);
+			if(best==radius*radius) assertNull(x+", "+y, nearest);
+			else {
+				assertNotNull(x+", "+y, nearest);
+				assertEquals(x+", "+y, Math.sqrt(best), nearest.getDistance(), 1e-9);
+			}
+			
+		}
+		
+	}
+	
+}
@@ -0,0 +1,114 @@
+package mgraphic.expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the compiled expressions evaluate bit for bit as their trees interpreted, for the scalar and the batch
+ * evaluation, on written and on random expressions.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class ExpressionTest {
+	
+	private static final long SEED = 20120101L;
+	private static final double[] SPECIAL = {0, -0.0, 1, -1, 0.5, 2, 3, Math.PI, 1e-300, -1e300, 1e308,
+		Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+	private static final String[] CONSTANTS = {"0", "1", "2", "3", "0.5", "0.001", "12.75", "pi", "e"};
+	private static final char[] OPERATORS = {'+', '-', '*', '/', '^'};
+	
+	@Test
+	public void compiledMatchesInterpreted() {
+		
+		String[] sources = {"x", "-x", "2*x+1", "(x^3-2*x+1)/(x^2+1)", "sin(x)*exp(-0.1*x^2)+0.5*cos(3*x)",
+				"-x^2", "x^-1", "2^x^2", "x^0.5", "pow(x, 3)", "atan2(x, 1-x)", "hypot(x, pi)", "min(x, max(-x, e))",
+				"log10(abs(x))+sqrt(x)*cbrt(x)", "floor(x)-ceil(x)", "sinh(x)/cosh(x)-tanh(x)", "asin(x)+acos(x)",
+				"1/x", "x/0", "0*x", "x*1", "1*x", "x-0", "((((x))))"};
+		
+		for(String source : sources)
+			assertEvaluates(Expression.parse(source));
+		
+	}
+	
+	@Test
+	public void randomCompiledMatchesInterpreted() {
+		
+		Random random = new Random(SEED);
+		
+		for(int i=0; i<2000; i++)
+			assertEvaluates(Expression.parse(generate(random, 1+random.nextInt(6))));
+		
+	}
+	
+	@Test
+	public void foldsConstants() {
+		assertEquals(Double.doubleToLongBits(3*Math.PI+1), Double.doubleToLongBits(Expression.parse("3*pi+1").evaluate(7)));
+		assertEquals(Double.doubleToLongBits(Math.sin(2.0)), Double.doubleToLongBits(Expression.parse("sin(1+1)").evaluate(7)));
+	}
+	
+	@Test
+	public void reportsThePositionOfErrors() {
+		String[] invalid = {"", "x+", "2*(x", "sin x", "foo(x)", "pow(x)", "x $ 2", "1..2"};
+		for(String source : invalid){
+			try {
+				Expression.parse(source);
+				fail(source+" was parsed");
+			} catch (IllegalArgumentException e) {
+				if(e.getMessage() == null || !e.getMessage().contains(" at ")) fail(source+": "+e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Evaluates an expression at the special values and at random values, one by one and in a batch.
+	 */
+	private static void assertEvaluates(Expression expression){
+		
+		Random random = new Random(SEED);
+		double[] xs = new double[SPECIAL.length+64];
+		System.arraycopy(SPECIAL, 0, xs, 0, SPECIAL.length);
+		for(int i=SPECIAL.length; i<xs.length; i++)
+			xs[i] = (random.nextDouble()-0.5)*Math.pow(10, random.nextInt(9)-4);
+		
+		double[] out = new double[xs.length+2];
+		expression.evaluate(xs, out, 0, xs.length);
+		
+		for(int i=0; i<xs.length; i++){
+			long expected = Double.doubleToLongBits(expression.interpret(xs[i]));
+			assertEquals(expression+" at "+xs[i], expected, Double.doubleToLongBits(expression.evaluate(xs[i])));
+			assertEquals(expression+" in a batch at "+xs[i], expected, Double.doubleToLongBits(out[i]));
+		}
+		
+		assertEquals(0, Double.doubleToLongBits(out[xs.length]));
+		
+	}
+	
+	/**
+	 * 
+	 * @param depth The maximum depth of the expression
+	 * @return A random expression
+	 */
+	private static String generate(Random random, int depth){
+		
+		if(depth==0 || random.nextInt(5)==0)
+			return random.nextBoolean()?"x":CONSTANTS[random.nextInt(CONSTANTS.length)];
+		
+		switch(random.nextInt(4)){
+			case 0:
+				return "("+generate(random, depth-1)+OPERATORS[random.nextInt(OPERATORS.length)]+generate(random, depth-1)+")";
+			case 1:
+				return "-("+generate(random, depth-1)+")";
+			default:
+				Builtin function = Builtin.values()[random.nextInt(Builtin.values().length)];
+				return function.getName()+"("+generate(random, depth-1)+
+						(function.getArguments()==2?", "+generate(random, depth-1):"")+")";
+		}
+		
+	}
+	
+}
@@ -0,0 +1,76 @@
+package mgraphic.functions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the views of a ring series have the points of the series when they were taken, and keep them while
+ * points are appended, merged and discarded.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class RingSeriesTest {
+	
+	private static final long SEED = 20120101L;
+	
+	@Test
+	public void snapshotsKeepTheirPoints() {
+		
+		Random random = new Random(SEED);
+		
+		for(double window : new double[]{Double.POSITIVE_INFINITY, 50}){
+			
+			RingSeries ring = new RingSeries(100, window);
+			List<Series> snapshots = new ArrayList<Series>();
+			List<double[][]> expected = new ArrayList<double[][]>();
+			double x = 0;
+			
+			for(int i=0; i<2000; i++){
+				
+				int length = random.nextInt(i%50==0?300:8);
+				double[] xs = new double[length], ys = new double[length];
+				boolean ascending = random.nextInt(10)>0;
+				for(int j=0; j<length; j++){
+					xs[j] = ascending?(x += random.nextDouble()):x-random.nextDouble()*20;
+					ys[j] = random.nextGaussian();
+				}
+				ring.append(xs, ys, 0, length);
+				
+				if(random.nextInt(3)==0){
+					Series snapshot = ring.snapshot();
+					assertPoints(points(ring), snapshot);
+					snapshots.add(snapshot);
+					expected.add(points(snapshot));
+				}
+				
+			}
+			
+			for(int i=0; i<snapshots.size(); i++)
+				assertPoints(expected.get(i), snapshots.get(i));
+			
+		}
+		
+	}
+	
+	private static double[][] points(Series series){
+		double[][] points = new double[2][series.size()];
+		series.getXs(0, series.size(), points[0], 0);
+		series.getYs(0, series.size(), points[1], 0);
+		return points;
+	}
+	
+	private static void assertPoints(double[][] expected, Series series){
+		assertEquals(expected[0].length, series.size());
+		for(int i=0; i<series.size(); i++){
+			assertEquals(expected[0][i], series.getX(i), 0);
+			assertEquals(expected[1][i], series.getY(i), 0);
+		}
+	}
+	
+}
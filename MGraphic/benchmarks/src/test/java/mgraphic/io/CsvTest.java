@@ -0,0 +1,53 @@
+package mgraphic.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import mgraphic.functions.DoubleSeries;
+import mgraphic.functions.Function;
+
+import org.junit.Test;
+
+/**
+ * Checks that the functions written by CsvWriter are read back by CsvReader with their names and points.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class CsvTest {
+	
+	@Test
+	public void readsFunctionsNamedX() throws IOException {
+		
+		String[] names = {"x", "X", " x ", "x, \"y\""};
+		double[][] xs = {{0, 1, 2.5}, {0, 1, 2.5}, {-1, 3}, {-1, 3}}, ys = {{1, 2, 3}, {4, 5, 6}, {7, 8}, {9, 10}};
+		Function[] functions = new Function[names.length];
+		for(int i=0; i<functions.length; i++)
+			functions[i] = new Function(new DoubleSeries(xs[i], ys[i]), names[i], null);
+		
+		FunctionData[] read = writeAndRead(functions);
+		
+		assertEquals(functions.length, read.length);
+		for(int i=0; i<functions.length; i++){
+			assertEquals(names[i].trim(), read[i].getName());
+			assertArrayEquals(xs[i], read[i].getXs(), 0);
+			assertArrayEquals(ys[i], read[i].getYs(), 0);
+		}
+		
+	}
+	
+	private static FunctionData[] writeAndRead(Function[] functions) throws IOException {
+		File file = File.createTempFile("csv", ".csv");
+		try {
+			new CsvWriter(file).write(Arrays.asList(functions));
+			return new CsvReader(file).read();
+		} finally {
+			file.delete();
+		}
+	}
+
+}
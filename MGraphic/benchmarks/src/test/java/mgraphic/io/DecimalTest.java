@@ -0,0 +1,195 @@
+package mgraphic.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that Decimal parses as Double.parseDouble does, bit for bit, and that it formats the numbers with the fewest
+ * digits that parse back to them.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class DecimalTest {
+	
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final long SEED = 20120101L;
+	
+	@Test
+	public void parsesHalfwayCases() {
+		
+		//2^53+1 and 1+2^-53 are halfway between two doubles and round to the even one, a digit more rounds up
+		assertParses("9007199254740993");
+		assertParses("9007199254740993.0000000000000000001");
+		assertParses("1.00000000000000011102230246251565404236316680908203125");
+		assertParses("1.000000000000000111022302462515654042363166809082031251");
+		assertParses("0.1");
+		assertParses("0.3");
+		assertParses("123456789012345678");
+		
+		Random random = new Random(SEED);
+		for(int i=0; i<20000; i++){
+			double value = randomFinite(random);
+			if(Double.isInfinite(Math.nextUp(value))) continue;
+			BigDecimal halfway = new BigDecimal(value).add(new BigDecimal(Math.nextUp(value))).divide(BigDecimal.valueOf(2));
+			assertParses(halfway.toString());
+			assertParses(halfway.toPlainString()+"1");
+			assertParses(halfway.subtract(halfway.ulp()).toString());
+		}
+		
+	}
+	
+	@Test
+	public void parsesSubnormals() {
+		
+		assertParses("4.9e-324");
+		assertParses("2.4703282292062327e-324");
+		assertParses("2.4703282292062328e-324");
+		assertParses("2.2250738585072011e-308");
+		assertParses("2.2250738585072012e-308");
+		assertParses("2.225073858507201136057409796709131975934819546351645648e-308");
+		assertParses("1e-400");
+		assertParses("-0.0");
+		
+		Random random = new Random(SEED);
+		for(int i=0; i<50000; i++){
+			double value = Double.longBitsToDouble(random.nextLong() & ((1L<<52)-1));
+			assertParses(Double.toString(value));
+			assertParses(new BigDecimal(value).round(new MathContext(1+random.nextInt(25))).toString());
+		}
+		
+	}
+	
+	@Test
+	public void parsesLongMantissas() {
+		
+		assertParses("3.14159265358979323846264338327950288419716939937510");
+		assertParses("1234567890123456789012345678901234567890e-20");
+		assertParses("0.000000000000000000000000000000000000000000001234567890123456789");
+		assertParses("179769313486231570000000000000000000000000000000000000000000000000000000000000000000000000000000000"+
+				"000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000"+
+				"000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000");
+		assertParses("1.7976931348623158e308");
+		assertParses("1.7976931348623159e308");
+		
+		Random random = new Random(SEED);
+		for(int i=0; i<100000; i++)
+			assertParses(randomText(random, 19+random.nextInt(20)));
+		
+	}
+	
+	@Test
+	public void parsesRandomText() {
+		
+		Random random = new Random(SEED);
+		
+		for(int i=0; i<200000; i++){
+			assertParses(randomText(random, 1+random.nextInt(18)));
+			assertParses(Double.toString(randomFinite(random)));
+		}
+		
+		assertParses(" 12.5 ");
+		assertParses("\"-7e3\"");
+		assertEquals(Double.doubleToLongBits(Double.NaN), Double.doubleToLongBits(parse("")));
+		assertEquals(Double.doubleToLongBits(Double.NaN), Double.doubleToLongBits(parse("1.2.3")));
+		
+	}
+	
+	@Test
+	public void formatsShortestRoundTrip() {
+		
+		double[] values = {0, -0.0, 1, -1, 0.1, 1e7, 1e-3, 9.999999999999999e22, 1e23, 2e-323, Double.MIN_VALUE,
+				Double.MIN_NORMAL, Double.MAX_VALUE, Math.PI, 5e-324, 123456789, 0.001, 1234567.0, 12345678.0};
+		for(double value : values)
+			assertShortest(value);
+		
+		assertEquals("NaN", format(Double.NaN));
+		assertEquals("Infinity", format(Double.POSITIVE_INFINITY));
+		assertEquals("-Infinity", format(Double.NEGATIVE_INFINITY));
+		
+		Random random = new Random(SEED);
+		for(int i=0; i<200000; i++){
+			assertShortest(randomFinite(random));
+			assertShortest(random.nextInt(1000000)/1000.0);
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @return A double of random bits that is not NaN nor infinite
+	 */
+	private static double randomFinite(Random random){
+		double value;
+		do value = Double.longBitsToDouble(random.nextLong());
+		while(Double.isNaN(value) || Double.isInfinite(value));
+		return value;
+	}
+	
+	/**
+	 * 
+	 * @return A number with the digits given, a point somewhere and maybe an exponent
+	 */
+	private static String randomText(Random random, int digits){
+		
+		StringBuilder text = new StringBuilder();
+		if(random.nextBoolean()) text.append('-');
+		
+		int point = random.nextInt(digits+1);
+		for(int i=0; i<digits; i++){
+			if(i==point && i>0) text.append('.');
+			text.append((char) ('0'+random.nextInt(10)));
+		}
+		
+		if(random.nextBoolean()) text.append('e').append(random.nextInt(700)-350);
+		
+		return text.toString();
+		
+	}
+	
+	private static double parse(String text){
+		byte[] bytes = text.getBytes(ASCII);
+		return Decimal.parse(bytes, 0, bytes.length);
+	}
+	
+	private static String format(double value){
+		byte[] bytes = new byte[Decimal.MAX_LENGTH];
+		return new String(bytes, 0, Decimal.format(value, bytes, 0), ASCII);
+	}
+	
+	private static void assertParses(String text){
+		String trimmed = text.replace("\"", "").trim();
+		assertEquals(text, Double.doubleToLongBits(Double.parseDouble(trimmed)), Double.doubleToLongBits(parse(text)));
+	}
+	
+	/**
+	 * Checks that the text of a value parses back to it and that rounding the value to a digit less does not.
+	 */
+	private static void assertShortest(double value){
+		
+		String text = format(value);
+		assertEquals(text, Double.doubleToLongBits(value), Double.doubleToLongBits(Double.parseDouble(text)));
+		
+		//The two smallest subnormals are written with two digits, the closest to them, as Double.toString does
+		double magnitude = Math.abs(value);
+		if(magnitude<3*Double.MIN_VALUE) return;
+		
+		int digits = new BigDecimal(text).stripTrailingZeros().precision();
+		if(digits==1) return;
+		
+		BigDecimal exact = new BigDecimal(magnitude);
+		double below = new BigDecimal(exact.round(new MathContext(digits-1, RoundingMode.FLOOR)).toString()).doubleValue();
+		double above = new BigDecimal(exact.round(new MathContext(digits-1, RoundingMode.CEILING)).toString()).doubleValue();
+		assertTrue(text+" is not the shortest", below!=magnitude && above!=magnitude);
+		
+	}
+	
+}
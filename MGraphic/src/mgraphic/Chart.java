@@ -0,0 +1,218 @@
+package mgraphic;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import mgraphic.functions.Function;
+import mgraphic.io.PngFile;
+
+/**
+ * A graphic to draw into an image without a window: the functions, the view and the size of the image.
+ * The charts are drawn as MGraphic paints them, by a MGraphic kept by each thread that is never shown,
+ * so that different threads can draw charts at the same time, see RenderPool.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class Chart {
+	
+	/**
+	 * The graphic that draws the charts of each thread, it keeps no function between charts.
+	 */
+	private static final ThreadLocal<MGraphic> RENDERERS = new ThreadLocal<MGraphic>(){
+		@Override
+		protected MGraphic initialValue() {
+			MGraphic renderer = new MGraphic(-1, -1, 1, 1, 1, 1, false, false, false, false);
+			//Each chart is drawn once, so the positions of its functions are not worth keeping
+			renderer.setProjectionCache(false);
+			return renderer;
+		}
+	};
+	
+	/**
+	 * The image where each thread draws the parts of the charts, it is reused while the parts are not larger.
+	 */
+	private static final ThreadLocal<BufferedImage> TILES = new ThreadLocal<BufferedImage>();
+	
+	private final List<Function> functions;
+	private final double xMin;
+	private final double yMin;
+	private final double xMax;
+	private final double yMax;
+	private final double xScale;
+	private final double yScale;
+	private final boolean bode;
+	private final boolean guideLines;
+	private final boolean functionName;
+	private final int width;
+	private final int height;
+	
+	/**
+	 * 
+	 * @param functions The functions to draw, the functions are not copied so their levels of detail are reused
+	 * @param xMin If is a bode chart this parameter corresponds to 10^xMin if not corresponds to xMin
+	 * @param yMin The minimum ordinate to show
+	 * @param xMax If is a bode chart this parameter corresponds to 10^xMax if not corresponds to xMax
+	 * @param yMax The maximum ordinate to show
+	 * @param xScale The abcises axis scale
+	 * @param yScale The ordinate axis scale
+	 * @param bode True if the chart should be ploted as a bode false if it should be ploted as a linear
+	 * @param guideLines True if guidelines are visible false otherwise
+	 * @param functionName If the function's names should be written at their end
+	 * @param width The image width in pixels
+	 * @param height The image height in pixels
+	 */
+	public Chart(Collection<Function> functions, double xMin, double yMin, double xMax, double yMax, 
+			double xScale, double yScale, boolean bode, boolean guideLines, boolean functionName, int width, int height) {
+		
+		if(functions == null || xMin>xMax || yMin>yMax || xScale<=0 || yScale<=0 || width<=0 || height<=0) 
+			throw new IllegalArgumentException();
+		
+		this.functions = Collections.unmodifiableList(new ArrayList<Function>(functions));
+		this.xMin = xMin;
+		this.yMin = yMin;
+		this.xMax = xMax;
+		this.yMax = yMax;
+		this.xScale = xScale;
+		this.yScale = yScale;
+		this.bode = bode;
+		this.guideLines = guideLines;
+		this.functionName = functionName;
+		this.width = width;
+		this.height = height;
+		
+	}
+	
+	/**
+	 * 
+	 * @return The functions drawn
+	 */
+	public List<Function> getFunctions() { return functions; }
+	
+	/**
+	 * 
+	 * @return The image width in pixels
+	 */
+	public int getWidth() { return width; }
+	
+	/**
+	 * 
+	 * @return The image height in pixels
+	 */
+	public int getHeight() { return height; }
+	
+	/**
+	 * 
+	 * @return A new image with the chart drawn on a white background
+	 */
+	public BufferedImage render(){
+		
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		
+		Graphics2D g = image.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, width, height);
+		render(g);
+		g.dispose();
+		
+		return image;
+		
+	}
+	
+	/**
+	 * Draws the chart, the area drawn is the one from (0, 0) to (width, height).
+	 * 
+	 * @param g The graphic variable to where the chart will be written
+	 */
+	public void render(Graphics g){ render(g, null); }
+	
+	/**
+	 * Draws a part of the chart, only the points of the functions near the part are read.
+	 * The parts of a chart drawn separately join without seams.
+	 * 
+	 * @param g The graphic variable to where the chart will be written, with the coordinates of the whole chart
+	 * @param area The part of the chart to draw, null to draw the whole chart
+	 */
+	public void render(Graphics g, Rectangle area){
+		
+		MGraphic renderer = RENDERERS.get();
+		
+		renderer.setSize(width, height);
+		renderer.setBounds(xMin, xMax, yMin, yMax);
+		renderer.setScale(xScale, yScale);
+		renderer.setBode(bode);
+		renderer.showGrid(guideLines);
+		renderer.showFunctionNames(functionName);
+		renderer.setFunctions(functions);
+		
+		try{
+			renderer.render(g, area);
+		} finally {
+			renderer.setFunctions(Collections.<Function>emptyList());
+		}
+		
+	}
+	
+	/**
+	 * Draws a part of the chart on a white background into the same part of an image.
+	 * Different threads may draw different parts of the same image at the same time, each part is drawn apart 
+	 * and copied to the image.
+	 * 
+	 * @param image The image to where the part is copied, of the type TYPE_INT_RGB and with the size of the chart
+	 * @param area The part of the chart to draw
+	 */
+	public void render(BufferedImage image, Rectangle area){
+		
+		if(image == null || image.getType() != BufferedImage.TYPE_INT_RGB || image.getWidth() != width || 
+				image.getHeight() != height || area == null || !new Rectangle(width, height).contains(area)) 
+			throw new IllegalArgumentException();
+		
+		if(area.isEmpty()) return;
+		
+		BufferedImage tile = TILES.get();
+		if(tile == null || tile.getWidth() < area.width || tile.getHeight() < area.height){
+			tile = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_RGB);
+			TILES.set(tile);
+		}
+		tile = tile.getSubimage(0, 0, area.width, area.height);
+		
+		Graphics2D g = tile.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, area.width, area.height);
+		g.translate(-area.x, -area.y);
+		render(g, area);
+		g.dispose();
+		
+		image.getRaster().setDataElements(area.x, area.y, tile.getRaster());
+		
+	}
+	
+	/**
+	 * Draws the chart and saves it to a png file.
+	 * 
+	 * @param file The file to where the image is written, it is replaced if it exists
+	 * @throws IOException Covers file in use by another process, no space left...
+	 * @see PngFile
+	 */
+	public void writePng(File file) throws IOException{ PngFile.write(file, render()); }
+	
+	/**
+	 * Draws the chart and writes it as a png image, the stream is not closed.
+	 * 
+	 * @param out The stream to where the image is written
+	 * @throws IOException If the stream can not be written
+	 * @see PngFile
+	 */
+	public void writePng(OutputStream out) throws IOException{ PngFile.write(out, render()); }
+	
+}
@@ -0,0 +1,373 @@
+package mgraphic;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import mgraphic.functions.Function;
+import mgraphic.functions.Series;
+
+/**
+ * An index of the functions of a graphic by the pixels they cross, built for a view and a size of the graphic.
+ * For each function it keeps the lowest and the highest pixel of its points in each pixel column, and the graphic is
+ * divided in cells of CELL pixels that know the functions that cross them. The point nearest to a position is then
+ * searched only in the functions that cross the cells near the position, the closest first, and in each function
+ * only the points whose abcises are near the position are read, found by binary search.
+ * The functions much larger than the graphic are indexed by a level of detail, which keeps the minimum and the maximum
+ * of each group of points, so the index is built reading a few points by pixel column.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+class HoverIndex {
+	
+	/**
+	 * The width and the height in pixels of the cells.
+	 */
+	static final int CELL = 16;
+	
+	private final long version;
+	private final int width;
+	private final int height;
+	private final double originX;
+	private final double originY;
+	private final double unitX;
+	private final double unitY;
+	private final boolean bode;
+	
+	private final Function[] functions;
+	private final Series[] series;
+	/**
+	 * The lowest and the highest pixel ordinates of the points of each function in each column, null if none is visible.
+	 */
+	private final int[][] lows, highs;
+	/**
+	 * The functions that cross each cell, the cells are by rows.
+	 */
+	private final int[][] cells;
+	private final int[] cellSizes;
+	private final int cellColumns, cellRows;
+	
+	/**
+	 * 
+	 * @param functions The functions to index
+	 * @param version The version of the view and of the functions
+	 * @param width The graphic width
+	 * @param height The graphic height
+	 * @param originX The pixel abcises of the abcises 0, or 1 in the bode case
+	 * @param originY The pixel ordinate of the ordinate 0
+	 * @param unitX The number of pixels that correspond to 1 unit or in the bode case to 10^1
+	 * @param unitY The number of pixels that correspond to 1 unit
+	 * @param bode True if the graphic is a bode
+	 * @param levelOfDetail True if the functions may be indexed by their levels of detail
+	 */
+	HoverIndex(Collection<Function> functions, long version, int width, int height, double originX, double originY,
+			double unitX, double unitY, boolean bode, boolean levelOfDetail) {
+		
+		this.version = version;
+		this.width = width;
+		this.height = height;
+		this.originX = originX;
+		this.originY = originY;
+		this.unitX = unitX;
+		this.unitY = unitY;
+		this.bode = bode;
+		
+		this.functions = functions.toArray(new Function[functions.size()]);
+		this.series = new Series[this.functions.length];
+		this.lows = new int[this.functions.length][];
+		this.highs = new int[this.functions.length][];
+		
+		this.cellColumns = (width+CELL-1)/CELL;
+		this.cellRows = (height+CELL-1)/CELL;
+		this.cells = new int[cellColumns*cellRows][];
+		this.cellSizes = new int[cellColumns*cellRows];
+		
+		for(int f=0; f<this.functions.length; f++)
+			index(f, levelOfDetail);
+	
+	}
+	
+	/**
+	 * 
+	 * @param version The version of the view and of the functions
+	 * @param width The graphic width
+	 * @param height The graphic height
+	 * @return True if the index was built for the same view, functions and size
+	 */
+	boolean matches(long version, int width, int height){
+		return this.version==version && this.width==width && this.height==height;
+	}
+	
+	/**
+	 * 
+	 * @param f The index of the function to index
+	 * @param levelOfDetail True if the function may be indexed by its levels of detail
+	 */
+	private void index(int f, boolean levelOfDetail){
+		
+		Function function = functions[f];
+		Series all = function.getSeries().snapshot();
+		series[f] = all;
+		
+		if(all.size()==0) return;
+		
+		Series indexed = all;
+		int from = Math.max(0, all.lowerBound(abcises(-1))-1), to = Math.min(all.size(), all.upperBound(abcises(width))+1);
+		boolean reduced = false;
+		
+		if(levelOfDetail && !function.getSeries().isMutable()){
+			int level = 0;
+			for(long count = to-from; count/2 >= (long)MGraphic.DECIMATION_THRESHOLD*width; count/=2)
+				level++;
+			if(level>0){
+				indexed = function.getLevel(level);
+				reduced = indexed != all;
+				from = Math.max(0, indexed.lowerBound(abcises(-1))-1);
+				to = Math.min(indexed.size(), indexed.upperBound(abcises(width))+1);
+			}
+		}
+		
+		int[] low = new int[width], high = new int[width];
+		boolean visible = false;
+		
+		for(int c=0; c<width; c++){
+			low[c] = Integer.MAX_VALUE;
+			high[c] = Integer.MIN_VALUE;
+		}
+		
+		for(int i=from; i<to; i++){
+			
+			double column = Math.floor(pixelX(indexed.getX(i))+0.5), y = pixelY(indexed.getY(i));
+			if(!(column>=0 && column<width) || y!=y) continue;
+			
+			int c = (int) column;
+			int floor = (int) Math.max(Integer.MIN_VALUE+1, Math.floor(y)), ceil = (int) Math.min(Integer.MAX_VALUE-1, Math.ceil(y));
+			if(floor<low[c]) low[c] = floor;
+			if(ceil>high[c]) high[c] = ceil;
+			visible = true;
+		
+		}
+		
+		if(reduced){
+			//A point left out by the level of detail between two of its points is in the group of one of them, within 
+			//the minimum and the maximum of the group, which are that point and the one before or after it
+			int size = indexed.size();
+			for(int i=from+1; i<to; i++)
+				visible |= fill(low, high, indexed.getX(i-1), indexed.getX(i), indexed, i-2, i+1);
+			if(from==0) visible |= fill(low, high, all.getX(0), indexed.getX(0), indexed, 0, 1);
+			if(to==size) visible |= fill(low, high, indexed.getX(size-1), all.getX(all.size()-1), indexed, size-2, size-1);
+		}
+		
+		if(!visible) return;
+		
+		lows[f] = low;
+		highs[f] = high;
+		
+		for(int c=0; c<width; c++){
+			if(low[c]>high[c]) continue;
+			int first = Math.max(0, Math.min(cellRows-1, low[c]/CELL)), last = Math.max(0, Math.min(cellRows-1, high[c]/CELL));
+			for(int row=first; row<=last; row++)
+				addToCell(row*cellColumns+c/CELL, f);
+		}
+	
+	}
+	
+	/**
+	 * Widens the lowest and the highest pixel ordinates of the columns between two abcises to the ordinates of some
+	 * points.
+	 * 
+	 * @param low The lowest pixel ordinates of the columns
+	 * @param high The highest pixel ordinates of the columns
+	 * @param left The abcises of the first column
+	 * @param right The abcises of the last column
+	 * @param points The points with the ordinates
+	 * @param first The index of the first point, it may be before the first point of the series
+	 * @param last The index of the last point, it may be after the last point of the series
+	 * @return True if a column was widened
+	 */
+	private boolean fill(int[] low, int[] high, double left, double right, Series points, int first, int last){
+		
+		double firstColumn = Math.max(0, Math.floor(pixelX(left)+0.5)), lastColumn = Math.min(width-1, Math.floor(pixelX(right)+0.5));
+		if(!(firstColumn<=lastColumn)) return false;
+		
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for(int i=Math.max(0, first); i<=Math.min(points.size()-1, last); i++){
+			double y = pixelY(points.getY(i));
+			if(y<minY) minY = y;
+			if(y>maxY) maxY = y;
+		}
+		if(!(minY<=maxY)) return false;
+		
+		int floor = (int) Math.max(Integer.MIN_VALUE+1, Math.floor(minY)), ceil = (int) Math.min(Integer.MAX_VALUE-1, Math.ceil(maxY));
+		for(int c=(int) firstColumn; c<=(int) lastColumn; c++){
+			if(floor<low[c]) low[c] = floor;
+			if(ceil>high[c]) high[c] = ceil;
+		}
+		
+		return true;
+	
+	}
+	
+	/**
+	 * 
+	 * @param cell The cell index
+	 * @param f The function that crosses the cell
+	 */
+	private void addToCell(int cell, int f){
+		
+		int size = cellSizes[cell];
+		int[] content = cells[cell];
+		
+		if(size>0 && content[size-1]==f) return;
+		
+		if(content == null) content = cells[cell] = new int[4];
+		else if(size==content.length) content = cells[cell] = Arrays.copyOf(content, size*2);
+		
+		content[size] = f;
+		cellSizes[cell] = size+1;
+	
+	}
+	
+	/**
+	 * 
+	 * @param x The position abcises in pixels
+	 * @param y The position ordinate in pixels
+	 * @param radius The maximum distance in pixels to the point
+	 * @return The point of a function nearest to the position, null if none is within the radius
+	 */
+	HoverPoint nearest(double x, double y, double radius){
+		
+		int[] candidates = new int[functions.length];
+		double[] bounds = new double[functions.length];
+		boolean[] seen = new boolean[functions.length];
+		int count = 0;
+		double best = radius*radius;
+		
+		int firstColumn = Math.max(0, (int) Math.floor((x-radius-1)/CELL)), lastColumn = Math.min(cellColumns-1, (int) Math.floor((x+radius+1)/CELL));
+		int firstRow = Math.max(0, (int) Math.floor((y-radius-1)/CELL)), lastRow = Math.min(cellRows-1, (int) Math.floor((y+radius+1)/CELL));
+		
+		for(int row=firstRow; row<=lastRow; row++)
+			for(int column=firstColumn; column<=lastColumn; column++){
+				int cell = row*cellColumns+column;
+				for(int i=0; i<cellSizes[cell]; i++){
+					int f = cells[cell][i];
+					if(seen[f]) continue;
+					seen[f] = true;
+					double bound = lowerBound(f, x, y, radius);
+					if(bound>best) continue;
+					//Sorted by the distance bound so that the closest functions are searched first
+					int position = count++;
+					for(; position>0 && bounds[position-1]>bound; position--){
+						candidates[position] = candidates[position-1];
+						bounds[position] = bounds[position-1];
+					}
+					candidates[position] = f;
+					bounds[position] = bound;
+				}
+			}
+		
+		int bestFunction = -1, bestIndex = -1;
+		
+		for(int candidate=0; candidate<count && bounds[candidate]<=best; candidate++){
+			
+			int f = candidates[candidate];
+			Series points = series[f];
+			int start = points.lowerBound(abcises(x));
+			
+			for(int direction=-1; direction<=1; direction+=2)
+				for(int i=direction<0?start-1:start; i>=0 && i<points.size(); i+=direction){
+					double dx = pixelX(points.getX(i))-x;
+					if(dx*dx>best) break;
+					double dy = pixelY(points.getY(i))-y, distance = dx*dx+dy*dy;
+					if(distance<best || distance==best && bestFunction<0){
+						best = distance;
+						bestFunction = f;
+						bestIndex = i;
+					}
+				}
+		
+		}
+		
+		if(bestFunction<0) return null;
+		
+		Series points = series[bestFunction];
+		
+		return new HoverPoint(functions[bestFunction].getName(), bestIndex, points.getX(bestIndex), points.getY(bestIndex),
+				interpolate(points, x), Math.sqrt(best));
+	
+	}
+	
+	/**
+	 * 
+	 * @param f The index of a function
+	 * @param x The position abcises in pixels
+	 * @param y The position ordinate in pixels
+	 * @param radius The maximum distance in pixels to the point
+	 * @return A value not larger than the square of the distance between the position and the nearest point of the function
+	 */
+	private double lowerBound(int f, double x, double y, double radius){
+		
+		int[] low = lows[f], high = highs[f];
+		double bound = Double.POSITIVE_INFINITY;
+		
+		int first = Math.max(0, (int) Math.floor(x-radius)), last = Math.min(width-1, (int) Math.ceil(x+radius));
+		
+		for(int c=first; c<=last; c++){
+			if(low[c]>high[c]) continue;
+			//The points of the column are less than half a pixel from its middle
+			double dx = Math.max(0, Math.abs(c-x)-0.5);
+			double dy = y<low[c]?low[c]-y:(y>high[c]?y-high[c]:0);
+			bound = Math.min(bound, dx*dx+dy*dy);
+		}
+		
+		return bound;
+	
+	}
+	
+	/**
+	 * 
+	 * @param points The points of a function
+	 * @param x The position abcises in pixels
+	 * @return The ordinate of the line between the points around the abcises of the position, NaN if there are none
+	 */
+	private double interpolate(Series points, double x){
+		
+		double abcises = abcises(x);
+		int i = points.lowerBound(abcises);
+		
+		if(i<points.size() && points.getX(i)==abcises) return points.getY(i);
+		if(i==0 || i==points.size()) return Double.NaN;
+		
+		//Along a straight line on the screen, in the bode case the line is straight in the logarithm of the abcises
+		double left = pixelX(points.getX(i-1)), right = pixelX(points.getX(i));
+		double t = right==left?0:(x-left)/(right-left);
+		
+		return points.getY(i-1)+t*(points.getY(i)-points.getY(i-1));
+	
+	}
+	
+	/**
+	 * 
+	 * @param x An abcises
+	 * @return The abcises in pixels, not rounded
+	 */
+	private double pixelX(double x){ return originX+(bode?Math.log10(x):x)*unitX; }
+	
+	/**
+	 * 
+	 * @param y An ordinate
+	 * @return The ordinate in pixels, not rounded
+	 */
+	private double pixelY(double y){ return originY-y*unitY; }
+	
+	/**
+	 * 
+	 * @param x An abcises in pixels
+	 * @return The abcises at the pixels
+	 */
+	private double abcises(double x){
+		double linear = (x-originX)/unitX;
+		return bode?Math.pow(10, linear):linear;
+	}
+
+}
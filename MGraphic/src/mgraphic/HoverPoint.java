@@ -0,0 +1,77 @@
+package mgraphic;
+
+/**
+ * A point of a function found near a position of the graphic.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ * @see MGraphic#getNearestPoint(double, double, double)
+ */
+public class HoverPoint {
+	
+	private final String name;
+	private final int index;
+	private final double x;
+	private final double y;
+	private final double interpolatedY;
+	private final double distance;
+	
+	/**
+	 * 
+	 * @param name The name of the function
+	 * @param index The index of the point in the function series
+	 * @param x The point abcises
+	 * @param y The point ordinate
+	 * @param interpolatedY The function ordinate at the abcises of the position
+	 * @param distance The distance in pixels between the point and the position
+	 */
+	public HoverPoint(String name, int index, double x, double y, double interpolatedY, double distance) {
+		this.name = name;
+		this.index = index;
+		this.x = x;
+		this.y = y;
+		this.interpolatedY = interpolatedY;
+		this.distance = distance;
+	}
+	
+	/**
+	 * 
+	 * @return The name of the function
+	 */
+	public String getName() { return name; }
+	
+	/**
+	 * 
+	 * @return The index of the point in the function series
+	 */
+	public int getIndex() { return index; }
+	
+	/**
+	 * 
+	 * @return The point abcises
+	 */
+	public double getX() { return x; }
+	
+	/**
+	 * 
+	 * @return The point ordinate
+	 */
+	public double getY() { return y; }
+	
+	/**
+	 * 
+	 * @return The ordinate of the line between the points of the function around the abcises of the position, 
+	 * NaN if the position is beyond the first or the last point
+	 */
+	public double getInterpolatedY() { return interpolatedY; }
+	
+	/**
+	 * 
+	 * @return The distance in pixels between the point and the position
+	 */
+	public double getDistance() { return distance; }
+	
+	@Override
+	public String toString() { return name+"["+x+", "+y+"]"; }
+	
+}
@@ -1,28 +1,43 @@
 package mgraphic;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionListener;
 import java.awt.geom.Point2D;
-import java.awt.geom.Point2D.Double;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.swing.JComponent;
 
 import mgraphic.functions.Function;
+import mgraphic.functions.Projection;
 import mgraphic.functions.ReservedNameException;
+import mgraphic.functions.RingSeries;
+import mgraphic.functions.Series;
+import mgraphic.io.CsvReader;
+import mgraphic.io.CsvWriter;
+import mgraphic.io.FunctionData;
+import mgraphic.io.SeriesFile;
+import mgraphic.io.WorkbookReader;
+import mgraphic.io.WorkbookWriter;
+import mgraphic.metrics.Metrics;
 
 import jxl.Workbook;
 import jxl.read.biff.BiffException;
@@ -44,9 +59,14 @@ import jxl.write.biff.RowsExceededException;
 public class MGraphic extends JComponent implements MouseMotionListener{
 	
 	/**
-	 * The hash table where the functions will be recorded.
+	 * The functions recorded, the map is never changed, adding or removing a function replaces it by a changed copy
+	 * so that the functions can be read without locking and each paint sees a consistent set of functions.
 	 */
-	private Hashtable<String, Function> functions; 
+	private final AtomicReference<Map<String, Function>> functions; 
+	/**
+	 * The number of the next function added without a name.
+	 */
+	private final AtomicInteger generatedNames;
 	
 	/**
 	 * The minimum abcises.
@@ -68,6 +88,7 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * The abcises axis scale.
 	 * E.g: If bode = true the abcises will be written at 10^(0*xScale), 10^(1*xScale), 10^(2*xScale)...
 	 * E.g: If bode = false the abcises will be written at (0*xScale), (1*xScale), (2*xScale)...
+	 * When the scale is too small for the labels to be apart only some of its multiples are written.
 	 */
 	private double xScale;
 	/**
@@ -75,18 +96,14 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 */
 	private double yScale;
 	
-	/**
-	 * The format number used to mark the scale on a linear graphic
-	 */
-	private DecimalFormat numberFormatLinearScale;
 	/**
 	 * The format number used to mark the coordinate whene the mouse is houver the MGraphic element, if this option is enabled. 
 	 */
 	private DecimalFormat numberFormatMouseOver;
 	/**
-	 * The format number used to mark the scale on a bode graphic 
+	 * The ticks of the axes of the last view drawn, with their labels.
 	 */
-	private DecimalFormat numberFormatBodeScale;
+	private Ticks xTicks, yTicks;
 	
 	/**
 	 * True if guidelines are visible false otherwise.
@@ -108,6 +125,122 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * If the coordinates should be shown as the user passes the mouse over the MGraphic element. 
 	 */
 	private Point mousePosition;
+	/**
+	 * True if the functions added should keep their coordinates as float instead of double.
+	 */
+	private boolean singlePrecision;
+	/**
+	 * True if the functions much larger than the graphic width should be decimated before drawn.
+	 */
+	private boolean decimation;
+	/**
+	 * True if the decimated functions should be drawn from the coarsest level of detail that still has 
+	 * DECIMATION_THRESHOLD points by pixel column.
+	 */
+	private boolean levelOfDetail;
+	/**
+	 * True if the positions in pixels of the functions should be kept between paints.
+	 */
+	private boolean projectionCache;
+	/**
+	 * The part of the graphic being drawn by render, null if the whole graphic is drawn.
+	 */
+	private Rectangle area;
+	/**
+	 * The index of the functions by the pixels they cross, built for the last view searched by getNearestPoint.
+	 */
+	private volatile HoverIndex hoverIndex;
+	/**
+	 * The default maximum distance in pixels between a position and the point found by getNearestPoint.
+	 */
+	public static final double HOVER_RADIUS = 8;
+	/**
+	 * The number of points by pixel column above which a function is decimated.
+	 */
+	public static final int DECIMATION_THRESHOLD = 4;
+	/**
+	 * The distance in pixels outside the graphic to where the lines are clipped.
+	 */
+	private static final int CLIP_MARGIN = 2;
+	/**
+	 * The maximum number of positions drawn by each call to drawPolyline.
+	 */
+	private static final int POLYLINE_CHUNK = 4096;
+	/**
+	 * The maximum number of points whose positions in pixels are kept by each function between paints.
+	 */
+	private static final int PROJECTION_CACHE_LIMIT = 1<<20;
+	/**
+	 * The maximum number of points read to find the ordinates of a function near a part of the graphic.
+	 */
+	private static final int AREA_SCAN_LIMIT = 1024;
+	/**
+	 * The number of points projected together when the positions are not kept.
+	 */
+	private static final int PROJECTION_BLOCK = 4096;
+	/**
+	 * The font used to write the axes, the function names and the mouse coordinates.
+	 */
+	private static final Font GENERAL_FONT = new Font( "Arial", Font.PLAIN, 12 );
+	/**
+	 * The font used to write the legend.
+	 */
+	private static final Font LEGEND_FONT = new Font( "Arial", Font.BOLD, 16 );
+	/**
+	 * The capacity of the streams created when points are appended to a function that does not exist.
+	 */
+	public static final int DEFAULT_STREAM_CAPACITY = 1<<20;
+	
+	/**
+	 * The cached image of the axes and guide lines.
+	 */
+	private BufferedImage axesLayer;
+	/**
+	 * The cached image of the functions.
+	 */
+	private BufferedImage functionsLayer;
+	/**
+	 * Changes whenever the bounds, the scale, the bode or the guide lines change.
+	 */
+	private final AtomicInteger viewVersion = new AtomicInteger();
+	/**
+	 * Changes whenever a function is added or removed.
+	 */
+	private final AtomicInteger functionsVersion = new AtomicInteger();
+	/**
+	 * The view version the axes layer was drawn with.
+	 */
+	private int axesLayerVersion = -1;
+	/**
+	 * The view and functions versions the functions layer was drawn with.
+	 */
+	private long functionsLayerVersion = -1;
+	
+	/**
+	 * The abcises in pixels of the polyline being drawn, reused between paints.
+	 */
+	private final int[] polylineXs = new int[POLYLINE_CHUNK];
+	/**
+	 * The ordinates in pixels of the polyline being drawn, reused between paints.
+	 */
+	private final int[] polylineYs = new int[POLYLINE_CHUNK];
+	/**
+	 * The number of positions of the polyline not drawn yet.
+	 */
+	private int polylineSize;
+	/**
+	 * The last position given to moveTo or lineTo.
+	 */
+	private double penX, penY;
+	/**
+	 * The positions in pixels of the points projected without being kept, reused between paints.
+	 */
+	private final double[] projectedXs = new double[PROJECTION_BLOCK], projectedYs = new double[PROJECTION_BLOCK];
+	/**
+	 * The state of the pixel column being reduced by reduceColumns.
+	 */
+	private double column, columnFirstY, columnLastY, columnMinY, columnMaxY;
+	private long columnFirst, columnLast, columnMin, columnMax, columnNext;
 	
 	/**
 	 * Constructs a graphic element.
@@ -139,15 +272,14 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 			double xScale, double yScale, 
 			boolean bode, boolean guideLines, boolean showMouseCoordinates, boolean functionName) {
 		
-		this.functions = new Hashtable<String, Function>();
+		this.functions = new AtomicReference<Map<String, Function>>(Collections.<String, Function>emptyMap());
+		this.generatedNames = new AtomicInteger();
 		
 		setBounds(xMin, xMax, yMin, yMax);
 		
 		setScale(xScale, yScale);
 		
-		this.numberFormatLinearScale = new DecimalFormat("#.##");
 		this.numberFormatMouseOver = new DecimalFormat("0.#######E0");
-		this.numberFormatBodeScale = new DecimalFormat("0.#E0");
 		
 		this.guideLines = guideLines;
 		this.guideLinesColor = Color.GRAY;
@@ -160,6 +292,10 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 		
 		this.functionName = functionName;
 		
+		this.decimation = true;
+		this.levelOfDetail = true;
+		this.projectionCache = true;
+		
 	}
 	
 	/**
@@ -171,7 +307,64 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @return
 	 * The function object
 	 */
-	public Function getFunction(String name){ return functions.get(name); }
+	public Function getFunction(String name){ return functions.get().get(name); }
+	
+	/**
+	 * 
+	 * @return
+	 * The functions in the graphic at the moment, the collection does not change when functions are added or removed
+	 */
+	public Collection<Function> getFunctions(){ return functions.get().values(); }
+	
+	/**
+	 * Replaces all the functions of the graphic by others, the functions are kept as they are 
+	 * so that their levels of detail are reused.
+	 * 
+	 * @param functions
+	 * The functions to show, a function replaces the ones before with the same name
+	 */
+	void setFunctions(Collection<Function> functions){
+		
+		Map<String, Function> changed = new LinkedHashMap<String, Function>();
+		for(Function function: functions)
+			changed.put(function.getName(), function);
+		
+		this.functions.set(Collections.unmodifiableMap(changed));
+		refreshFunctionsLayer();
+		
+	}
+	
+	/**
+	 * Replaces the function recorded with a name if it is still the one expected.
+	 * 
+	 * @param name
+	 * The function name
+	 * @param expected
+	 * The function expected to be recorded with the name, null if none is expected
+	 * @param replacement
+	 * The function to record with the name, null to remove it
+	 * @return
+	 * True if the function was replaced, false if the function recorded was not the one expected
+	 */
+	private boolean replaceFunction(String name, Function expected, Function replacement){
+		
+		while(true){
+			
+			Map<String, Function> current = functions.get();
+			if(current.get(name) != expected) return false;
+			
+			Map<String, Function> changed = new LinkedHashMap<String, Function>(current);
+			if(replacement == null) changed.remove(name);
+			else changed.put(name, replacement);
+			
+			if(functions.compareAndSet(current, Collections.unmodifiableMap(changed))){
+				refreshFunctionsLayer();
+				return true;
+			}
+			
+		}
+		
+	}
 	
 	/**
 	 * Adds a function to the graphic.
@@ -191,26 +384,75 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 */
 	public String addFunction(Point2D.Double[] points, String name, Color color) throws ReservedNameException{
 		
-		if(name!=null && name.matches("F\\d+")) throw new ReservedNameException(name);
+		if(points == null) throw new IllegalArgumentException();
 		
-		class Sorter implements Comparator<Point2D.Double>{
-
-			@Override
-			public int compare(Double o1, Double o2) {
-				double compare = o1.x-o2.x;
-				return compare>0?1:compare<0?-1:0;
-			}
-			
-		}
+		double[] xs = new double[points.length];
+		double[] ys = new double[points.length];
 		
-		Arrays.sort(points, new Sorter());
-
-		synchronized(functions){
-			String nameBuf = name==null?generateString():name;
-			functions.put(nameBuf, new Function(points, nameBuf, color));
-			return nameBuf;
+		for(int i=0; i<points.length; i++){
+			xs[i] = points[i].x;
+			ys[i] = points[i].y;
 		}
 		
+		return addFunction(xs, ys, name, color);
+		
+	}
+	
+	/**
+	 * Adds a function to the graphic.
+	 * If the points are not sorted these function will sort them.
+	 * 
+	 * @param xs
+	 * Abcises of the points covered by the function, the array is sorted in place and kept by the function
+	 * @param ys
+	 * Ordinates of the points covered by the function, the array is sorted in place and kept by the function
+	 * @param name
+	 * It can not be complaint with the er ^F//d+$ or else ReservedNameException will be thrown
+	 * @param color
+	 * The function line color
+	 * @return
+	 * The function name
+	 * @throws ReservedNameException
+	 * It will be throw if a name complaint with the er ^F//d+$ is added, these names are reserved so that the user can
+	 * add function with out specifing a name
+	 */
+	public String addFunction(double[] xs, double[] ys, String name, Color color) throws ReservedNameException{
+		
+		if(xs == null || ys == null || xs.length != ys.length) throw new IllegalArgumentException();
+		
+		Series.sort(xs, ys, xs.length);
+		
+		return addFunction(Series.valueOf(xs, ys, singlePrecision), name, color);
+		
+	}
+	
+	/**
+	 * Adds a function to the graphic.
+	 * The points of the series must be sorted by abcises.
+	 * 
+	 * @param series
+	 * Points covered by the function
+	 * @param name
+	 * It can not be complaint with the er ^F//d+$ or else ReservedNameException will be thrown
+	 * @param color
+	 * The function line color
+	 * @return
+	 * The function name
+	 * @throws ReservedNameException
+	 * It will be throw if a name complaint with the er ^F//d+$ is added, these names are reserved so that the user can
+	 * add function with out specifing a name
+	 */
+	public String addFunction(Series series, String name, Color color) throws ReservedNameException{
+		
+		if(name!=null && name.matches("F\\d+")) throw new ReservedNameException(name);
+		
+		String nameBuf = name==null?generateString():name;
+		Function function = new Function(series, nameBuf, color);
+		
+		while(!replaceFunction(nameBuf, getFunction(nameBuf), function));
+		
+		return nameBuf;
+		
 	}
 	
 	/**
@@ -246,6 +488,78 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 		
 	}
 	
+	/**
+	 * Adds a function to which points can be appended, it keeps at most capacity points.
+	 * 
+	 * @param name
+	 * It can not be complaint with the er ^F//d+$ or else ReservedNameException will be thrown
+	 * @param color
+	 * The function line color
+	 * @param capacity
+	 * The maximum number of points kept, once reached the oldest points are discarded
+	 * @param window
+	 * The maximum distance between the abcises of the oldest and the last point, 
+	 * Double.POSITIVE_INFINITY to keep the points until the capacity is reached
+	 * @return
+	 * The function name
+	 * @throws ReservedNameException
+	 * It will be throw if a name complaint with the er ^F//d+$ is added, these names are reserved so that the user can
+	 * add function with out specifing a name
+	 */
+	public String addStream(String name, Color color, int capacity, double window) throws ReservedNameException{
+		return addFunction(new RingSeries(capacity, window), name, color);
+	}
+	
+	/**
+	 * Appends points to a function.
+	 * If the function does not exist it is added as a stream with DEFAULT_STREAM_CAPACITY, if it was not added as a stream
+	 * it is replaced by a stream with its points.
+	 * Points appended in ascending order of abcises are not sorted again.
+	 * 
+	 * @param name
+	 * The function name
+	 * @param xs
+	 * The abcises to append
+	 * @param ys
+	 * The ordinates to append
+	 * @throws ReservedNameException
+	 * It will be throw if the function does not exist and name is complaint with the er ^F//d+$
+	 */
+	public void appendPoints(String name, double[] xs, double[] ys) throws ReservedNameException{
+		
+		if(name == null || xs == null || ys == null || xs.length != ys.length) throw new IllegalArgumentException();
+		
+		Function function = getFunction(name);
+		
+		while(function == null || !(function.getSeries() instanceof RingSeries)){
+			
+			Function stream;
+			
+			if(function == null){
+				if(name.matches("F\\d+")) throw new ReservedNameException(name);
+				stream = new Function(new RingSeries(DEFAULT_STREAM_CAPACITY, Double.POSITIVE_INFINITY), name, null);
+			} else {
+				Series series = function.getSeries();
+				RingSeries ring = new RingSeries(Math.max(DEFAULT_STREAM_CAPACITY, series.size()+xs.length), Double.POSITIVE_INFINITY);
+				double[] oldXs = new double[series.size()], oldYs = new double[series.size()];
+				for(int i=0; i<oldXs.length; i++){
+					oldXs[i] = series.getX(i);
+					oldYs[i] = series.getY(i);
+				}
+				ring.append(oldXs, oldYs, 0, oldXs.length);
+				stream = new Function(ring, name, function.getColor());
+			}
+			
+			//Another thread may have changed the function meanwhile
+			function = replaceFunction(name, function, stream)?stream:getFunction(name);
+			
+		}
+		
+		((RingSeries) function.getSeries()).append(xs, ys, 0, xs.length);
+		refreshFunctionsLayer();
+		
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -255,12 +569,82 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	}
 	
 	/**
-	 * Generates a function based on the number of functions in the graphic.
+	 * 
+	 * @param singlePrecision
+	 * True and the functions added afterwards will keep their coordinates as float, taking half of the memory,
+	 * false and they will be kept as double
+	 */
+	public void setSinglePrecision(boolean singlePrecision){ this.singlePrecision = singlePrecision; }
+	
+	/**
+	 * 
+	 * @return True if the functions added keep their coordinates as float
+	 */
+	public boolean getSinglePrecision(){ return singlePrecision; }
+	
+	/**
+	 * 
+	 * @param decimation
+	 * True and the functions with more than DECIMATION_THRESHOLD points by pixel column will be reduced to the 
+	 * first, minimum, maximum and last point of each column before drawn, the result is the same as drawing every point
+	 */
+	public void setDecimation(boolean decimation){ this.decimation = decimation; refreshFunctionsLayer(); }
+	
+	/**
+	 * 
+	 * @return True if the functions much larger than the graphic width are decimated before drawn
+	 */
+	public boolean getDecimation(){ return decimation; }
+	
+	/**
+	 * 
+	 * @param levelOfDetail
+	 * True and the decimated functions will be drawn from the coarsest level of detail that still has DECIMATION_THRESHOLD 
+	 * points by pixel column, so the time to draw does not depend on the number of points visible, 
+	 * the minimums and maximums are kept but the result may differ slightly from drawing every point
+	 * @see Function#getLevel(int)
+	 */
+	public void setLevelOfDetail(boolean levelOfDetail){ this.levelOfDetail = levelOfDetail; refreshFunctionsLayer(); }
+	
+	/**
+	 * 
+	 * @return True if the decimated functions are drawn from a level of detail
+	 */
+	public boolean getLevelOfDetail(){ return levelOfDetail; }
+	
+	/**
+	 * 
+	 * @param projectionCache
+	 * True if the positions in pixels of the functions should be kept between paints, they are only worth keeping 
+	 * when the same view is painted again
+	 */
+	public void setProjectionCache(boolean projectionCache){ this.projectionCache = projectionCache; }
+	
+	/**
+	 * 
+	 * @return
+	 * True if the positions in pixels of the functions are kept between paints
+	 */
+	public boolean getProjectionCache(){ return projectionCache; }
+	
+	/**
+	 * Generates a function name based on the number of functions added without a name.
 	 * 
 	 * @return
 	 * The name of the function
 	 */
-	private String generateString(){return "F"+functions.size();}
+	private String generateString(){return "F"+generatedNames.getAndIncrement();}
+	
+	/**
+	 * Gives the name to add a function loaded from a file with, the names reserved, which the file got when the 
+	 * functions were saved without a name, are left to be generated again.
+	 * 
+	 * @param name
+	 * The name in the file
+	 * @return
+	 * The name, null if it is reserved
+	 */
+	private static String loadedName(String name){ return name!=null && name.matches("F\\d+")?null:name; }
 	
 	/**
 	 * Remove a function.
@@ -270,7 +654,14 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @return
 	 * The function removed
 	 */
-	public Function removeFunction(String name){ return functions.remove(name); }
+	public Function removeFunction(String name){ 
+		
+		while(true){
+			Function removed = getFunction(name);
+			if(removed == null || replaceFunction(name, removed, null)) return removed;
+		}
+		
+	}
 	
 	/**
 	 * Set the scale.
@@ -284,6 +675,7 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 		if(xScale<=0 || yScale<=0) throw new IllegalArgumentException();
 		this.xScale = xScale;
 		this.yScale = yScale;
+		refreshLayers();
 	}
 	
 	/**
@@ -318,6 +710,7 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 		this.yMin = yMin;
 		this.xMax = xMax;
 		this.yMax = yMax;
+		refreshLayers();
 	}
 	
 	/**
@@ -350,11 +743,44 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	
 	/**
 	 * 
-	 * @param unitPixiesX
-	 * @return
+	 * @param unitPixiesX The number of pixels of an abcises unit
+	 * @return The pixel abcises of the ordinates axis, the abcises 0 or 1 in the bode case, not rounded and outside 
+	 * of the graphic when the axis is not visible
+	 */
+	public double getOriginX(double unitPixiesX){
+		return -xMin*unitPixiesX;
+	}
+	
+	/**
+	 * 
+	 * @param unitPixiesX The number of pixels of an abcises unit
+	 * @return The pixel abcises of the ordinates axis, rounded
+	 * @deprecated The pixels are mapped in double precision, use {@link #getOriginX(double)}
 	 */
+	@Deprecated
 	public int getAxisWidth(int unitPixiesX){
-		return (int) Math.round(getWidth()*(Math.abs(xMin)*unitPixiesX/getWidth()));
+		return (int) Math.round(getOriginX(unitPixiesX));
+	}
+	
+	/**
+	 * 
+	 * @param unitPixiesY The number of pixels of an ordinate unit
+	 * @return The pixel ordinate of the abcises axis, the ordinate 0, not rounded and outside of the graphic 
+	 * when the axis is not visible
+	 */
+	public double getOriginY(double unitPixiesY){
+		return yMax*unitPixiesY;
+	}
+	
+	/**
+	 * 
+	 * @param unitPixiesY The number of pixels of an ordinate unit
+	 * @return The pixel ordinate of the abcises axis, rounded
+	 * @deprecated The pixels are mapped in double precision, use {@link #getOriginY(double)}
+	 */
+	@Deprecated
+	public int getAxisHeight(int unitPixiesY){
+		return (int) Math.round(getOriginY(unitPixiesY));
 	}
 	
 	/**
@@ -362,7 +788,14 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @param show 
 	 * True to show the guide lines of the both axis false hides it
 	 */
-	public void showGrid(boolean show){this.guideLines = show;}
+	public void showGrid(boolean show){this.guideLines = show; refreshLayers();}
+	
+	/**
+	 * 
+	 * @param show 
+	 * True to write the function's names at their end false hides them
+	 */
+	public void showFunctionNames(boolean show){this.functionName = show; refreshFunctionsLayer();}
 	
 	/**
 	 * 
@@ -370,74 +803,323 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * True and this graphic will be shown as a bode graphic false 
 	 * and this grahic will be presented as a linear graphic
 	 */
-	public void setBode(boolean bode){ this.bode=bode; }
+	public void setBode(boolean bode){ this.bode=bode; refreshLayers(); }
+	
+	/**
+	 * Marks the cached images of the axes and of the functions as outdated, 
+	 * they will be drawn again on the next paint.
+	 */
+	protected void refreshLayers(){ viewVersion.incrementAndGet(); }
+	
+	/**
+	 * Marks the cached image of the functions as outdated, it will be drawn again on the next paint.
+	 */
+	protected void refreshFunctionsLayer(){ functionsVersion.incrementAndGet(); }
 	
 	/**
 	 * 
-	 * @return
+	 * @return The number of pixels of an abcises unit, or of a decade in the bode case, not rounded
 	 */
+	protected double getUnitPixelsX(){
+		return getWidth()/(xMax-xMin);
+	}
+	
+	/**
+	 * 
+	 * @return The number of pixels of an abcises unit, rounded
+	 * @deprecated The pixels are mapped in double precision, use {@link #getUnitPixelsX()}
+	 */
+	@Deprecated
 	protected int getUnitPixeisX(){
-		return (int) Math.round(getWidth()/(xMax-xMin));
+		return (int) Math.round(getUnitPixelsX());
 	}
 	
 	/**
 	 * 
-	 * @return
+	 * @return The number of pixels of an ordinate unit, not rounded
 	 */
-	protected int getUnitPixeisY(){
-		return (int) Math.round(getHeight()/(yMax-yMin));
+	protected double getUnitPixelsY(){
+		return getHeight()/(yMax-yMin);
 	}
 	
 	/**
 	 * 
+	 * @return The number of pixels of an ordinate unit, rounded
+	 * @deprecated The pixels are mapped in double precision, use {@link #getUnitPixelsY()}
 	 */
-	@Override
+	@Deprecated
+	protected int getUnitPixeisY(){
+		return (int) Math.round(getUnitPixelsY());
+	}
+	
+	/**
+	 * Paints the graphic, the axes and the functions are drawn into cached images that are only drawn again 
+	 * when the view, the functions or the size change, so that moving the mouse only draws the coordinates.
+	 */
+	@Override
 	public void paint(Graphics g) {
 		
 		super.paint(g);
 		
+		if(getWidth()<=0 || getHeight()<=0) return;
+		
 		//Passa a ser unidades 10^unitPixiesX quando no gr�fico de bode
-		int unitPixiesX = getUnitPixeisX(), unitPixiesY = getUnitPixeisY();
-		int axisHeight = -1, axisWidth = -1;
+		double unitPixiesX = getUnitPixelsX(), unitPixiesY = getUnitPixelsY();
+		double axisHeight = getOriginY(unitPixiesY), axisWidth = getOriginX(unitPixiesX);
 		
 		//Setting elements
-		Font generalFont = new Font( "Arial", Font.PLAIN, 12 );
+		Font generalFont = GENERAL_FONT;
+		
+		int view = viewVersion.get();
+		long functionsView = ((long)view<<32) | (functionsVersion.get() & 0xFFFFFFFFL);
+		
+		if(axesLayer == null || axesLayer.getWidth()!=getWidth() || axesLayer.getHeight()!=getHeight() || axesLayerVersion != view){
+			
+			axesLayer = prepareLayer(axesLayer);
+			axesLayerVersion = view;
+			
+			long start = Metrics.ENABLED?System.nanoTime():0;
+			
+			Graphics2D layer = axesLayer.createGraphics();
+			drawAxes(layer, generalFont, unitPixiesX, unitPixiesY, axisWidth, axisHeight);
+			layer.dispose();
+			
+			if(Metrics.ENABLED) Metrics.AXES.record(System.nanoTime()-start);
+			
+		}
+		
+		if(functionsLayer == null || functionsLayer.getWidth()!=getWidth() || functionsLayer.getHeight()!=getHeight() || functionsLayerVersion != functionsView){
+			
+			functionsLayer = prepareLayer(functionsLayer);
+			functionsLayerVersion = functionsView;
+			
+			long start = Metrics.ENABLED?System.nanoTime():0;
+			
+			Graphics2D layer = functionsLayer.createGraphics();
+			layer.setFont(generalFont);
+			
+			drawFunctions( unitPixiesX, unitPixiesY, axisWidth, axisHeight, layer);
+			
+			layer.dispose();
+			
+			if(Metrics.ENABLED) Metrics.FUNCTIONS.record(System.nanoTime()-start);
+			
+		}
+		
+		long start = Metrics.ENABLED?System.nanoTime():0;
+		
+		g.drawImage(axesLayer, 0, 0, null);
+		g.drawImage(functionsLayer, 0, 0, null);
+		
+		//Desenhar a legenda
+		g.setColor(Color.BLACK);
+		g.setFont(LEGEND_FONT);
+		
+		//Desenhar coordenadas no ponto em que o rato est�
+		if(mousePosition != null){
+			g.setFont(generalFont);
+			g.drawString(getMouseLabel(), mousePosition.x, mousePosition.y);
+		}
+		
+		if(Metrics.ENABLED) Metrics.OVERLAY.record(System.nanoTime()-start);
+		
+	}
+	
+	/**
+	 * Draws the axes and the functions with the current size of the graphic straight into g, without the cached layers 
+	 * and the mouse coordinates, so that a graphic that is not shown in a window can be drawn into an image.
+	 * 
+	 * @param g
+	 * The graphic variable to where the graphic will be written
+	 */
+	public void render(Graphics g){ render(g, null); }
+	
+	/**
+	 * Draws a part of the graphic, as render(g) would, into g, only the points of the functions near the part are read.
+	 * The lines are drawn exactly as they are when the whole graphic is drawn, so that the parts drawn separately 
+	 * join without seams, and the text that crosses the border of the part is drawn up to the border.
+	 * 
+	 * @param g
+	 * The graphic variable to where the graphic will be written, with the coordinates of the whole graphic, 
+	 * translate it to draw the part elsewhere
+	 * @param area
+	 * The part of the graphic to draw, null to draw the whole graphic
+	 */
+	public void render(Graphics g, Rectangle area){
+		
+		if(getWidth()<=0 || getHeight()<=0) return;
+		
+		double unitPixiesX = getUnitPixelsX(), unitPixiesY = getUnitPixelsY();
+		double axisHeight = getOriginY(unitPixiesY), axisWidth = getOriginX(unitPixiesX);
+		
+		if(area != null) g.clipRect(area.x, area.y, area.width, area.height);
+		this.area = area;
+		
+		try{
+			
+			long start = Metrics.ENABLED?System.nanoTime():0;
+			
+			drawAxes(g, GENERAL_FONT, unitPixiesX, unitPixiesY, axisWidth, axisHeight);
+			
+			if(Metrics.ENABLED){
+				long end = System.nanoTime();
+				Metrics.AXES.record(end-start);
+				start = end;
+			}
+			
+			g.setFont(GENERAL_FONT);
+			drawFunctions(unitPixiesX, unitPixiesY, axisWidth, axisHeight, g);
+			
+			if(Metrics.ENABLED) Metrics.FUNCTIONS.record(System.nanoTime()-start);
+			
+		} finally {
+			this.area = null;
+		}
+		
+	}
+	
+	/**
+	 * Draws the axes, their scales and the guide lines.
+	 * 
+	 * @param g
+	 * The graphic variable to where the axes will be written
+	 * @param generalFont
+	 * The font type that will be used to write the scales
+	 * @param unitPixiesX 
+	 * The number of pixels that correspond to 1 unit or in the bode case the number of pixeis that correspond to 10^1
+	 * @param unitPixiesY
+	 * The number of pixels that correspond to 1 unit
+	 * @param axisWidth
+	 * Axis width in pixels
+	 * @param axisHeight
+	 * Axis height in pixels
+	 */
+	private void drawAxes(Graphics g, Font generalFont, double unitPixiesX, double unitPixiesY, double axisWidth, double axisHeight){
+		
 		g.setFont(generalFont);
 		g.setColor(Color.BLACK);
 		
 		//Eixos
 		if( isXAxisVisible() ){
-			axisHeight = (int) Math.round(getHeight()*(yMax*unitPixiesY/getHeight()));
-			g.drawLine(0, axisHeight, getWidth(), axisHeight );
-			g.drawString("x", getWidth()-generalFont.getSize(), axisHeight+generalFont.getSize());
+			int axis = (int) Math.floor(axisHeight+0.5);
+			g.drawLine(0, axis, getWidth(), axis );
+			g.drawString("x", getWidth()-generalFont.getSize(), axis+generalFont.getSize());
 		}
 		
 		if( isYAxisVisible() ){
-			axisWidth = (int) Math.round(getWidth()*(Math.abs(xMin)*unitPixiesX/getWidth()));
-			g.drawLine(axisWidth, 0, axisWidth, getHeight() );
-			g.drawString("y", axisWidth+generalFont.getSize(), generalFont.getSize());
+			int axis = (int) Math.floor(axisWidth+0.5);
+			g.drawLine(axis, 0, axis, getHeight() );
+			g.drawString("y", axis+generalFont.getSize(), generalFont.getSize());
 		}
 		
 		writeXAxis(g, generalFont, unitPixiesX, axisHeight, axisWidth);
 		writeYAxis(g, generalFont, unitPixiesY, axisHeight, axisWidth);
 		
-		drawFunctions( unitPixiesX, unitPixiesY, axisWidth, axisHeight, g);
+	}
+	
+	/**
+	 * 
+	 * @param layer
+	 * The image used by the layer before, may be null
+	 * @return
+	 * A transparent image with the size of the graphic, layer is cleared and reused if it has the same size
+	 */
+	private BufferedImage prepareLayer(BufferedImage layer){
 		
-		//Desenhar a legenda
-		g.setColor(Color.BLACK);
-		g.setFont(new Font("Arial",Font.BOLD,16));
+		if(layer == null || layer.getWidth()!=getWidth() || layer.getHeight()!=getHeight())
+			return new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_ARGB);
 		
-		//Desenhar coordenadas no ponto em que o rato est�
-		if(mousePosition != null){
-			g.setFont(generalFont);
-			
-			g.drawString("("+
-					(numberFormatMouseOver.format(insverseTransformX(axisWidth,unitPixiesX)).toString()+", "+
-							numberFormatMouseOver.format(insverseTransformY(axisHeight,unitPixiesY)))+")", 
-							mousePosition.x, 
-							mousePosition.y);
+		Graphics2D clear = layer.createGraphics();
+		clear.setComposite(AlphaComposite.Clear);
+		clear.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+		clear.dispose();
+		
+		return layer;
+		
+	}
+	
+	/**
+	 * 
+	 * @return
+	 * The coordinates written at the mouse position
+	 */
+	protected String getMouseLabel(){
+		
+		double unitPixiesX = getUnitPixelsX(), unitPixiesY = getUnitPixelsY();
+		double axisHeight = getOriginY(unitPixiesY), axisWidth = getOriginX(unitPixiesX);
+		
+		return "("+
+				(numberFormatMouseOver.format(insverseTransformX(axisWidth,unitPixiesX)).toString()+", "+
+						numberFormatMouseOver.format(insverseTransformY(axisHeight,unitPixiesY)))+")";
+		
+	}
+	
+	/**
+	 * Finds the point of the functions nearest to a position of the graphic within HOVER_RADIUS pixels.
+	 * 
+	 * @param x
+	 * The position abcises in pixels
+	 * @param y
+	 * The position ordinate in pixels
+	 * @return
+	 * The nearest point, null if there is none within the radius
+	 * @see #getNearestPoint(double, double, double)
+	 */
+	public HoverPoint getNearestPoint(int x, int y){ return getNearestPoint(x, y, HOVER_RADIUS); }
+	
+	/**
+	 * Finds the point of the functions nearest to a position of the graphic, e.g. the mouse position.
+	 * The functions are indexed by the pixels they cross the first time a point is searched in a view and the index 
+	 * is reused until the view, the functions or the size change, so that each search only reads the points near 
+	 * the position and can be done whenever the mouse moves.
+	 * 
+	 * @param x
+	 * The position abcises in pixels
+	 * @param y
+	 * The position ordinate in pixels
+	 * @param radius
+	 * The maximum distance in pixels between the position and the point
+	 * @return
+	 * The nearest point, with the ordinate of its function at the abcises of the position, null if there is none 
+	 * within the radius
+	 */
+	public HoverPoint getNearestPoint(double x, double y, double radius){
+		
+		if(radius<0) throw new IllegalArgumentException();
+		
+		double unitPixiesX = getUnitPixelsX(), unitPixiesY = getUnitPixelsY();
+		if(getWidth()<=0 || getHeight()<=0 || unitPixiesX<=0 || unitPixiesY<=0) return null;
+		
+		double axisHeight = getOriginY(unitPixiesY), axisWidth = getOriginX(unitPixiesX);
+		
+		//The version is read before the functions, so an index built while they change is rebuilt on the next search
+		long version = ((long)viewVersion.get()<<32) | (functionsVersion.get() & 0xFFFFFFFFL);
+		HoverIndex index = hoverIndex;
+		
+		if(index == null || !index.matches(version, getWidth(), getHeight())){
+			index = new HoverIndex(getFunctions(), version, getWidth(), getHeight(), axisWidth, axisHeight, 
+					unitPixiesX, unitPixiesY, bode, levelOfDetail);
+			hoverIndex = index;
 		}
 		
+		return index.nearest(x, y, radius);
+		
+	}
+	
+	/**
+	 * 
+	 * @return
+	 * The area covered by the coordinates written at the mouse position, null if the mouse position is not known
+	 */
+	protected Rectangle getMouseLabelBounds(){
+		
+		if(mousePosition == null) return null;
+		
+		FontMetrics metrics = getFontMetrics(GENERAL_FONT);
+		
+		return new Rectangle(mousePosition.x-1, mousePosition.y-metrics.getAscent()-1, 
+				metrics.stringWidth(getMouseLabel())+2, metrics.getAscent()+metrics.getDescent()+2);
+		
 	}
 	
 	/**
@@ -454,29 +1136,140 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @param g
 	 * The graphic variable to where the function will be written
 	 */
-	protected void drawFunctions(int unitPixiesX,int unitPixiesY,int axisWidth, int axisHeight, Graphics g){
+	protected void drawFunctions(double unitPixiesX,double unitPixiesY,double axisWidth, double axisHeight, Graphics g){
 		
-		Iterator<Function> iteratorFunction = functions.values().iterator();
+		Iterator<Function> iteratorFunction = functions.get().values().iterator();
+		long pointsDrawn = 0, pointsCulled = 0, pointsAggregated = 0;
 		
 		while(iteratorFunction.hasNext()){
 			
 			Function function = iteratorFunction.next();
-			Point2D[] points = function.getPoints();
+			Series series = function.getSeries().snapshot();
+			int size = series.size();
 			g.setColor(function.getColor());
 			
-			if(points.length==1){
-				drawLine(g,points[0],points[0],unitPixiesX,unitPixiesY,axisWidth,axisHeight);
-				g.drawString(function.getName(),transformX(points[0].getX(),unitPixiesX, axisWidth, bode), transformY(points[0].getY(), unitPixiesY, axisHeight));
+			if(size==1){
+				if(Metrics.ENABLED) pointsDrawn++;
+				drawLine(g,series.getX(0),series.getY(0),series.getX(0),series.getY(0),unitPixiesX,unitPixiesY,axisWidth,axisHeight);
+				g.drawString(function.getName(),transformX(series.getX(0),unitPixiesX, axisWidth, bode), transformY(series.getY(0), unitPixiesY, axisHeight));
 			} else {
-				for (int i = 0; i < points.length-1; i++) 
-					drawLine(g,points[i],points[i+1],unitPixiesX,unitPixiesY,axisWidth,axisHeight);
-				if(this.functionName && points.length!=0){
-					g.drawString(function.getName(),transformX(points[points.length-1].getX(),unitPixiesX, axisWidth, bode), transformY(points[points.length-1].getY(), unitPixiesY, axisHeight));
+				//Only the points visible and their neighbours outside the graphic are drawn
+				int from = 0, to = size;
+				double visibleMin = inverseTransformX(-CLIP_MARGIN, unitPixiesX, axisWidth);
+				double visibleMax = inverseTransformX(getWidth()+CLIP_MARGIN, unitPixiesX, axisWidth);
+				if(unitPixiesX>0){
+					from = Math.max(0, series.lowerBound(visibleMin)-1);
+					to = Math.min(size, series.upperBound(visibleMax)+1);
+				}
+				//The points of the series visible, counted by the metrics whatever the level of detail drawn
+				int visibleFrom = from, visibleTo = to;
+				
+				boolean decimate = decimation && to-from > (long)DECIMATION_THRESHOLD*getWidth();
+				int level = 0;
+				Series drawn = series;
+				
+				if(decimate && levelOfDetail && unitPixiesX>0 && !function.getSeries().isMutable()){
+					for(long count = to-from; count/2 >= (long)DECIMATION_THRESHOLD*getWidth(); count/=2) 
+						level++;
+					drawn = function.getLevel(level);
+					level = Math.min(level, function.getLevelCount()-1);
+					from = Math.max(0, drawn.lowerBound(visibleMin)-1);
+					to = Math.min(drawn.size(), drawn.upperBound(visibleMax)+1);
+				}
+				
+				//The level of detail is the one of the whole graphic, only the points near the part drawn are read
+				if(area != null && unitPixiesX>0){
+					from = Math.max(from, drawn.lowerBound(inverseTransformX(area.x-CLIP_MARGIN, unitPixiesX, axisWidth))-1);
+					to = Math.min(to, drawn.upperBound(inverseTransformX(area.x+area.width+CLIP_MARGIN, unitPixiesX, axisWidth))+1);
+					if(Metrics.ENABLED){
+						visibleFrom = Math.max(visibleFrom, series.lowerBound(inverseTransformX(area.x-CLIP_MARGIN, unitPixiesX, axisWidth))-1);
+						visibleTo = Math.min(visibleTo, series.upperBound(inverseTransformX(area.x+area.width+CLIP_MARGIN, unitPixiesX, axisWidth))+1);
+					}
+					if(to-from > 1 && !crossesArea(function, drawn, level, from, to, unitPixiesY, axisHeight)) to = from;
+				}
+				
+				if(to-from > 1)
+					drawProjected(g, function, drawn, level, from, to, decimate, unitPixiesX, unitPixiesY, axisWidth, axisHeight);
+				
+				if(Metrics.ENABLED){
+					int count = to-from > 1?to-from:0;
+					int visible = count>0?Math.max(0, visibleTo-visibleFrom):0;
+					pointsDrawn += count;
+					pointsCulled += size-visible;
+					if(drawn != series) pointsAggregated += Math.max(0, visible-count);
+				}
+				
+				if(this.functionName && size!=0){
+					g.drawString(function.getName(),transformX(series.getX(size-1),unitPixiesX, axisWidth, bode), transformY(series.getY(size-1), unitPixiesY, axisHeight));
 				}
 			}	
 		
 		}
 		
+		if(Metrics.ENABLED) Metrics.recordPoints(pointsDrawn, pointsCulled, pointsAggregated);
+		
+	}
+	
+	/**
+	 * Function to draw, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #drawFunctions(double, double, double, double, Graphics)}
+	 */
+	@Deprecated
+	protected void drawFunctions(int unitPixiesX,int unitPixiesY,int axisWidth, int axisHeight, Graphics g){
+		drawFunctions((double) unitPixiesX, (double) unitPixiesY, (double) axisWidth, (double) axisHeight, g);
+	}
+	
+	/**
+	 * Tells if the lines between a range of points may cross the ordinates of the part of the graphic being drawn.
+	 * The ordinates are bounded by the points of a coarser level of detail, which keeps the minimum and the maximum 
+	 * of each group of points, so that at most about AREA_SCAN_LIMIT points are read.
+	 * 
+	 * @param function
+	 * The function drawn
+	 * @param drawn
+	 * The points drawn, the function series or one of its levels of detail
+	 * @param level
+	 * The level of detail of drawn
+	 * @param from
+	 * The index of the first point drawn
+	 * @param to
+	 * The index after the last point drawn
+	 * @param unitPixiesY
+	 * The number of pixels that correspond to 1 unit
+	 * @param axisHeight
+	 * Axis height in pixels
+	 * @return
+	 * False if the lines are surely above or below the part drawn
+	 */
+	private boolean crossesArea(Function function, Series drawn, int level, int from, int to, double unitPixiesY, double axisHeight){
+		
+		Series scanned = drawn;
+		int start = from, end = to;
+		
+		if(to-from > AREA_SCAN_LIMIT && !function.getSeries().isMutable()){
+			int coarser = level;
+			for(long count = to-from; count > AREA_SCAN_LIMIT; count/=2) 
+				coarser++;
+			if(function.getLevel(coarser).size() < drawn.size()){
+				//The minimum and the maximum of a group may be at most two points beyond the abcises of the range
+				scanned = function.getLevel(coarser);
+				start = Math.max(0, scanned.lowerBound(drawn.getX(from))-2);
+				end = Math.min(scanned.size(), scanned.upperBound(drawn.getX(to-1))+2);
+			}
+		}
+		
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		
+		for(int i=start; i<end; i++){
+			double y = scanned.getY(i);
+			if(y<minY) minY = y;
+			if(y>maxY) maxY = y;
+		}
+		
+		return pixelY(minY, unitPixiesY, axisHeight) >= area.y-CLIP_MARGIN && 
+				pixelY(maxY, unitPixiesY, axisHeight) <= area.y+area.height+CLIP_MARGIN;
+		
 	}
 	
 	/**
@@ -496,12 +1289,434 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @param axisHeight
 	 * Axis height in pixels
 	 */
-	protected void drawLine(Graphics g,Point2D point1, Point2D point2,int unitPixiesX,int unitPixiesY,int axisWidth,int axisHeight){
+	protected void drawLine(Graphics g,Point2D point1, Point2D point2,double unitPixiesX,double unitPixiesY,double axisWidth,double axisHeight){
 		Point coord = transformCoordinate(point1, unitPixiesX, unitPixiesY, axisWidth, axisHeight);
 		Point coordNext = transformCoordinate(point2, unitPixiesX, unitPixiesY, axisWidth, axisHeight);
 		g.drawLine(coord.x, coord.y, coordNext.x, coordNext.y);
 	}
 	
+	/**
+	 * Draws a line between two points, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #drawLine(Graphics, Point2D, Point2D, double, double, double, double)}
+	 */
+	@Deprecated
+	protected void drawLine(Graphics g,Point2D point1, Point2D point2,int unitPixiesX,int unitPixiesY,int axisWidth,int axisHeight){
+		drawLine(g, point1, point2, (double) unitPixiesX, (double) unitPixiesY, (double) axisWidth, (double) axisHeight);
+	}
+	
+	/**
+	 * 
+	 * @param g
+	 * The graphic variable to where the function will be written
+	 * @param x1 
+	 * First point abcises
+	 * @param y1 
+	 * First point ordinate
+	 * @param x2 
+	 * Second point abcises
+	 * @param y2 
+	 * Second point ordinate
+	 * @param unitPixiesX 
+	 * The number of pixels that correspond to 1 unit or in the bode case the number of pixeis that correspond to 10^1
+	 * @param unitPixiesY
+	 * The number of pixels that correspond to 1 unit
+	 * @param axisWidth
+	 * Axis width in pixels
+	 * @param axisHeight
+	 * Axis height in pixels
+	 */
+	protected void drawLine(Graphics g,double x1, double y1, double x2, double y2,double unitPixiesX,double unitPixiesY,double axisWidth,double axisHeight){
+		drawSegment(g, pixelX(x1, unitPixiesX, axisWidth), pixelY(y1, unitPixiesY, axisHeight), 
+				pixelX(x2, unitPixiesX, axisWidth), pixelY(y2, unitPixiesY, axisHeight));
+	}
+	
+	/**
+	 * Draws a line between two positions of the graphic, the line is clipped to the graphic in double precision 
+	 * before it is converted to integer pixels so that positions far outside the graphic do not overflow.
+	 * Lines with undefined or infinite positions are not drawn.
+	 * 
+	 * @param g
+	 * The graphic variable to where the line will be written
+	 * @param x1
+	 * First position abcises in pixels
+	 * @param y1
+	 * First position ordinate in pixels
+	 * @param x2
+	 * Second position abcises in pixels
+	 * @param y2
+	 * Second position ordinate in pixels
+	 */
+	protected void drawSegment(Graphics g, double x1, double y1, double x2, double y2){
+		moveTo(g, x1, y1);
+		lineTo(g, x2, y2);
+		flushPolyline(g);
+	}
+	
+	/**
+	 * Starts a polyline at a position of the graphic, the polyline pending is drawn.
+	 * 
+	 * @param g
+	 * The graphic variable to where the polyline will be written
+	 * @param x
+	 * The abcises in pixels
+	 * @param y
+	 * The ordinate in pixels
+	 */
+	protected void moveTo(Graphics g, double x, double y){
+		flushPolyline(g);
+		penX = x;
+		penY = y;
+	}
+	
+	/**
+	 * Adds a line from the last position to a position of the graphic to the polyline.
+	 * The positions are kept in buffers reused between paints and drawn by chunks with drawPolyline.
+	 * The line is clipped to the graphic in double precision before it is converted to integer pixels 
+	 * so that positions far outside the graphic do not overflow.
+	 * Lines with undefined or infinite positions are not drawn.
+	 * 
+	 * @param g
+	 * The graphic variable to where the polyline will be written
+	 * @param x
+	 * The abcises in pixels
+	 * @param y
+	 * The ordinate in pixels
+	 */
+	protected void lineTo(Graphics g, double x, double y){
+		
+		double x1 = penX, y1 = penY;
+		penX = x; penY = y;
+		
+		double left = -CLIP_MARGIN, top = -CLIP_MARGIN, right = getWidth()+CLIP_MARGIN, bottom = getHeight()+CLIP_MARGIN;
+		
+		if(x1>=left && x1<=right && x>=left && x<=right && y1>=top && y1<=bottom && y>=top && y<=bottom){
+			if(polylineSize==0) addToPolyline(g, (int)x1, (int)y1);
+			addToPolyline(g, (int)x, (int)y);
+			return;
+		}
+		
+		double dx = x-x1, dy = y-y1;
+		if(Double.isNaN(dx) || Double.isNaN(dy) || Double.isInfinite(dx) || Double.isInfinite(dy)){
+			flushPolyline(g);
+			return;
+		}
+		
+		//Liang-Barsky clipping
+		double enter = 0, exit = 1;
+		for(int edge=0; edge<4; edge++){
+			
+			double p = edge==0?-dx:edge==1?dx:edge==2?-dy:dy;
+			double q = edge==0?x1-left:edge==1?right-x1:edge==2?y1-top:bottom-y1;
+			
+			if(p==0){
+				if(q<0){ flushPolyline(g); return; }
+			} else {
+				double r = q/p;
+				if(p<0){
+					if(r>exit){ flushPolyline(g); return; }
+					if(r>enter) enter = r;
+				} else {
+					if(r<enter){ flushPolyline(g); return; }
+					if(r<exit) exit = r;
+				}
+			}
+			
+		}
+		
+		if(enter>0 || polylineSize==0){
+			flushPolyline(g);
+			addToPolyline(g, (int)Math.floor(x1+enter*dx+0.5), (int)Math.floor(y1+enter*dy+0.5));
+		}
+		addToPolyline(g, (int)Math.floor(x1+exit*dx+0.5), (int)Math.floor(y1+exit*dy+0.5));
+		if(exit<1) flushPolyline(g);
+		
+	}
+	
+	/**
+	 * Draws the polyline pending.
+	 * 
+	 * @param g
+	 * The graphic variable to where the polyline will be written
+	 */
+	protected void flushPolyline(Graphics g){
+		if(polylineSize>1) g.drawPolyline(polylineXs, polylineYs, polylineSize);
+		polylineSize = 0;
+	}
+	
+	/**
+	 * Adds a position to the polyline, if the buffers are full the polyline is drawn and continues from its last position.
+	 */
+	private void addToPolyline(Graphics g, int x, int y){
+		
+		if(polylineSize==POLYLINE_CHUNK){
+			g.drawPolyline(polylineXs, polylineYs, polylineSize);
+			polylineXs[0] = polylineXs[polylineSize-1];
+			polylineYs[0] = polylineYs[polylineSize-1];
+			polylineSize = 1;
+		}
+		
+		polylineXs[polylineSize] = x;
+		polylineYs[polylineSize++] = y;
+		
+	}
+	
+	/**
+	 * Transfom an abcises into the correspondent pixel on the graphic, as transformX but without converting it to an integer.
+	 * 
+	 * @param x The abscises 
+	 * @param unitPixiesX 
+	 * The number of pixels that correspond to 1 unit or in the bode case the number of pixeis that correspond to 10^1
+	 * @param axisWidth
+	 * Axis width in pixels
+	 * @return
+	 * The abscises transformed into the graphic position rounded to the nearest pixel
+	 */
+	protected double pixelX(double x, double unitPixiesX, double axisWidth){
+		return Math.floor(axisWidth + (bode?Math.log10(x):x)*unitPixiesX + 0.5);
+	}
+	
+	/**
+	 * Transfom an ordinate into the correspondent pixel on the graphic, as transformY but without converting it to an integer.
+	 * 
+	 * @param y The ordinate 
+	 * @param unitPixiesY 
+	 * The number of pixels that correspond to 1 unit
+	 * @param axisHeight
+	 * Axis height in pixels
+	 * @return
+	 * The ordinate transformed into the graphic position rounded to the nearest pixel
+	 */
+	protected double pixelY(double y, double unitPixiesY, double axisHeight){
+		return Math.floor(axisHeight - y*unitPixiesY + 0.5);
+	}
+	
+	/**
+	 * Inverse transform a pixel position into an abcises.
+	 * 
+	 * @param x
+	 * The position in pixels
+	 * @param unitPixiesX 
+	 * The number of pixels that correspond to 1 unit or in the bode case the number of pixeis that correspond to 10^1
+	 * @param axisWidth
+	 * Axis width in pixels
+	 * @return
+	 * The abcises at the position
+	 */
+	protected double inverseTransformX(double x, double unitPixiesX, double axisWidth){
+		double linear = (x-axisWidth)/unitPixiesX;
+		return bode?Math.pow(10, linear):linear;
+	}
+	
+	/**
+	 * Draws the lines between the points from the index from to the index to.
+	 * If the series is not mutable and the range is not too large the positions in pixels are kept by the function 
+	 * and reused by the next paints while the view and the size stay the same, otherwise they are projected by blocks
+	 * into buffers reused between paints.
+	 * 
+	 * @param g
+	 * The graphic variable to where the function will be written
+	 * @param function
+	 * The function drawn
+	 * @param series
+	 * The points to draw, the function series, its snapshot or one of its levels of detail
+	 * @param level
+	 * The level of detail of series
+	 * @param from
+	 * The index of the first point to draw
+	 * @param to
+	 * The index after the last point to draw
+	 * @param decimate
+	 * True if each pixel column should be reduced to its first, minimum, maximum and last point
+	 * @param unitPixiesX 
+	 * The number of pixels that correspond to 1 unit or in the bode case the number of pixeis that correspond to 10^1
+	 * @param unitPixiesY
+	 * The number of pixels that correspond to 1 unit
+	 * @param axisWidth
+	 * Axis width in pixels
+	 * @param axisHeight
+	 * Axis height in pixels
+	 */
+	protected void drawProjected(Graphics g, Function function, Series series, int level, int from, int to, boolean decimate,
+			double unitPixiesX, double unitPixiesY, double axisWidth, double axisHeight){
+		
+		boolean mutable = function.getSeries().isMutable();
+		
+		if(projectionCache && !mutable && to-from <= PROJECTION_CACHE_LIMIT){
+			
+			Projection projection = function.getProjection();
+			
+			if(projection == null || !projection.matches(level, from, to, xMin, xMax, yMin, yMax, bode, getWidth(), getHeight())){
+				double[] xs = new double[to-from], ys = new double[to-from];
+				project(function, series, level, from, to, xs, ys, unitPixiesX, unitPixiesY, axisWidth, axisHeight);
+				projection = new Projection(level, from, to, xMin, xMax, yMin, yMax, bode, getWidth(), getHeight(), xs, ys);
+				function.setProjection(projection);
+			}
+			
+			drawPixels(g, projection.getXs(), projection.getYs(), to-from, decimate, true, true);
+			
+		} else {
+			
+			for(int block=from; block<to; block+=PROJECTION_BLOCK){
+				int end = Math.min(to, block+PROJECTION_BLOCK);
+				project(function, series, level, block, end, projectedXs, projectedYs, unitPixiesX, unitPixiesY, axisWidth, axisHeight);
+				drawPixels(g, projectedXs, projectedYs, end-block, decimate, block==from, end==to);
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Computes the positions in pixels of a range of points, rounded to the nearest pixel as pixelX and pixelY do.
+	 * In the bode case the logarithms of the abcises kept by the function are used.
+	 * 
+	 * @param function
+	 * The function projected
+	 * @param series
+	 * The points to project, the function series, its snapshot or one of its levels of detail
+	 * @param level
+	 * The level of detail of series
+	 * @param from
+	 * The index of the first point to project
+	 * @param to
+	 * The index after the last point to project
+	 * @param xs
+	 * The array to where the abcises in pixels are written
+	 * @param ys
+	 * The array to where the ordinates in pixels are written
+	 * @param unitPixiesX 
+	 * The number of pixels that correspond to 1 unit or in the bode case the number of pixeis that correspond to 10^1
+	 * @param unitPixiesY
+	 * The number of pixels that correspond to 1 unit
+	 * @param axisWidth
+	 * Axis width in pixels
+	 * @param axisHeight
+	 * Axis height in pixels
+	 */
+	protected void project(Function function, Series series, int level, int from, int to, double[] xs, double[] ys,
+			double unitPixiesX, double unitPixiesY, double axisWidth, double axisHeight){
+		
+		int count = to-from;
+		
+		if(bode && !function.getSeries().isMutable() && series.isInHeap()){
+			function.getLog10Xs(level, from, to, xs, 0);
+		} else {
+			series.getXs(from, to, xs, 0);
+			if(bode)
+				for(int i=0; i<count; i++)
+					xs[i] = Math.log10(xs[i]);
+		}
+		
+		for(int i=0; i<count; i++)
+			xs[i] = Math.floor(axisWidth + xs[i]*unitPixiesX + 0.5);
+		
+		series.getYs(from, to, ys, 0);
+		
+		for(int i=0; i<count; i++)
+			ys[i] = Math.floor(axisHeight - ys[i]*unitPixiesY + 0.5);
+		
+	}
+	
+	/**
+	 * Draws the lines between positions in pixels, the positions may be given by several calls.
+	 * 
+	 * @param g
+	 * The graphic variable to where the function will be written
+	 * @param xs
+	 * The abcises in pixels
+	 * @param ys
+	 * The ordinates in pixels
+	 * @param count
+	 * The number of positions
+	 * @param decimate
+	 * True if each pixel column should be reduced to its first, minimum, maximum and last position
+	 * @param first
+	 * True if these are the first positions of the lines
+	 * @param last
+	 * True if these are the last positions of the lines
+	 */
+	private void drawPixels(Graphics g, double[] xs, double[] ys, int count, boolean decimate, boolean first, boolean last){
+		
+		if(decimate){
+			reduceColumns(g, xs, ys, count, first, last);
+		} else {
+			int i = 0;
+			if(first && count>0) moveTo(g, xs[i++], ys[i-1]);
+			for(; i<count; i++)
+				lineTo(g, xs[i], ys[i]);
+			if(last) flushPolyline(g);
+		}
+		
+	}
+	
+	/**
+	 * Draws the lines between positions in pixels reducing each pixel column to its first, minimum, maximum and last position.
+	 * All the lines between positions of the same column are vertical and cover the span between the minimum and the maximum
+	 * so the pixels written are the same as drawing every line, but the number of lines drawn depends only of the width.
+	 * The positions must be sorted by abcises and may be given by several calls.
+	 * 
+	 * @param g
+	 * The graphic variable to where the function will be written
+	 * @param xs
+	 * The abcises in pixels
+	 * @param ys
+	 * The ordinates in pixels
+	 * @param count
+	 * The number of positions
+	 * @param first
+	 * True if these are the first positions of the lines
+	 * @param last
+	 * True if these are the last positions of the lines
+	 */
+	private void reduceColumns(Graphics g, double[] xs, double[] ys, int count, boolean first, boolean last){
+		
+		if(first) columnNext = 0;
+		
+		for(int i = 0; i <= count; i++){
+			
+			if(i == count && !last) break;
+			
+			double x = 0, y = 0;
+			long index = columnNext;
+			
+			if(i < count){
+				x = xs[i];
+				y = ys[i];
+				columnNext++;
+				if(index > 0 && x == column){
+					columnLastY = y; columnLast = index;
+					if(y < columnMinY){ columnMinY = y; columnMin = index; }
+					if(y > columnMaxY){ columnMaxY = y; columnMax = index; }
+					continue;
+				}
+			}
+			
+			//Flushes the column that ended
+			if(index > 0){
+				
+				if(columnFirst > 0) lineTo(g, column, columnFirstY);
+				else moveTo(g, column, columnFirstY);
+				
+				long low = Math.min(columnMin, columnMax), high = Math.max(columnMin, columnMax);
+				double lowY = low==columnMin?columnMinY:columnMaxY, highY = low==columnMin?columnMaxY:columnMinY;
+				
+				if(low != columnFirst && low != columnLast) lineTo(g, column, lowY);
+				if(high != low && high != columnFirst && high != columnLast) lineTo(g, column, highY);
+				if(columnLast != columnFirst) lineTo(g, column, columnLastY);
+				
+			}
+			
+			column = x;
+			columnFirstY = columnLastY = columnMinY = columnMaxY = y;
+			columnFirst = columnLast = columnMin = columnMax = index;
+			
+		}
+		
+		if(last) flushPolyline(g);
+		
+	}
+	
 	/**
 	 * Writes the y axis. 
 	 * 
@@ -516,45 +1731,39 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @param axisHeight
 	 * Axis height in pixels
 	 */
-	protected void writeYAxis(Graphics g, Font generalFont, double unitPixiesY, int axisHeight, int axisWidth){
+	protected void writeYAxis(Graphics g, Font generalFont, double unitPixiesY, double axisHeight, double axisWidth){
 		
 		if(isYAxisVisible()){
 			
-			double yInc = isXAxisVisible()?axisHeight:0;
-			double ordenada = isXAxisVisible()?0:yMax;
+			Ticks ticks = yTicks;
+			if(ticks == null || !ticks.matches(yMin, yMax, yScale, unitPixiesY, axisHeight, false))
+				yTicks = ticks = new Ticks(yMin, yMax, yScale, unitPixiesY, axisHeight, false, true);
 			
-			if(isXAxisVisible()){
-				
-				while(yInc>0){
-					g.drawString(""+numberFormatLinearScale.format(ordenada), axisWidth-3*generalFont.getSize(), (int)Math.round(yInc) );
-					g.drawLine(axisWidth, (int)Math.round(yInc), axisWidth-2,  (int)Math.round(yInc) );
-					yInc -= unitPixiesY*yScale;
-					ordenada += yScale;
-					if(this.guideLines){
-						g.setColor(guideLinesColor);
-						g.drawLine(0, (int)Math.round(yInc), getWidth(), (int)Math.round(yInc));
-						g.setColor(Color.BLACK);
-					}
-				}
-				
-				yInc = axisHeight;
-				ordenada = 0;	
-			}
+			int axis = (int) Math.floor(axisWidth+0.5);
 			
-			while(yInc<getHeight()){
-				g.drawString(""+numberFormatLinearScale.format(ordenada), axisWidth-3*generalFont.getSize(), (int)Math.round(yInc) );
-				g.drawLine(axisWidth, (int)Math.round(yInc), axisWidth-2,  (int)Math.round(yInc) );
-				yInc += unitPixiesY*yScale;
-				ordenada -= yScale;
+			for(int i=0; i<ticks.size(); i++){
+				int y = ticks.getPixel(i);
 				if(this.guideLines){
 					g.setColor(guideLinesColor);
-					g.drawLine(0, (int)Math.round(yInc), getWidth(), (int)Math.round(yInc));
+					g.drawLine(0, y, getWidth(), y);
 					g.setColor(Color.BLACK);
 				}
-			}	
+				g.drawString(ticks.getLabel(i), axis-3*generalFont.getSize(), y);
+				g.drawLine(axis, y, axis-2, y);
+			}
 		}
 	}
 	
+	/**
+	 * Writes the y axis, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #writeYAxis(Graphics, Font, double, double, double)}
+	 */
+	@Deprecated
+	protected void writeYAxis(Graphics g, Font generalFont, double unitPixiesY, int axisHeight, int axisWidth){
+		writeYAxis(g, generalFont, unitPixiesY, (double) axisHeight, (double) axisWidth);
+	}
+	
 	/**
 	 * Write the x axis.
 	 * 
@@ -569,64 +1778,40 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @param axisHeight
 	 * Axis height in pixels
 	 */
-	protected void writeXAxis(Graphics g, Font generalFont, double unitPixiesX, int axisHeight, int axisWidth){
+	protected void writeXAxis(Graphics g, Font generalFont, double unitPixiesX, double axisHeight, double axisWidth){
 		
 		if(isXAxisVisible()){
 			
-			double xInc = isYAxisVisible()?axisWidth:0;
-			double abcissa = isYAxisVisible()?0:xMin;
+			Ticks ticks = xTicks;
+			if(ticks == null || !ticks.matches(xMin, xMax, xScale, unitPixiesX, axisWidth, bode))
+				xTicks = ticks = new Ticks(xMin, xMax, xScale, unitPixiesX, axisWidth, bode, false);
 			
-			double valueBode = 1;
-			double counterBode = 0;
-			
-			if(isYAxisVisible()){
-				
-				while(xInc>0){
-					g.drawString(""+(bode?numberFormatBodeScale.format(valueBode).toString():numberFormatLinearScale.format(abcissa)), (int)Math.round(xInc), axisHeight+generalFont.getSize());
-					g.drawLine((int)Math.round(xInc), axisHeight, (int)Math.round(xInc),  axisHeight+2);
-					xInc -= unitPixiesX*xScale;
-					
-					if(bode){
-						counterBode -= xScale;
-						valueBode = Math.pow(10, counterBode);
-					}else 
-						abcissa -= xScale;
-					
-					if(this.guideLines){
-						g.setColor(guideLinesColor);
-						g.drawLine((int)Math.round(xInc), 0, (int)Math.round(xInc), getHeight());
-						g.setColor(Color.BLACK);
-					}
-					
-				}
-				
-				xInc = axisWidth;
-				abcissa = 0;	
-				if(bode){ valueBode = 1; counterBode = 0;}
-				
-			}
+			int axis = (int) Math.floor(axisHeight+0.5);
 			
-			while(xInc<getWidth()){
-				g.drawString(""+(bode?numberFormatMouseOver.format(valueBode).toString():numberFormatLinearScale.format(abcissa)), (int)Math.round(xInc), axisHeight+generalFont.getSize());
-				g.drawLine((int)Math.round(xInc), axisHeight, (int)Math.round(xInc),  axisHeight+2);
-				xInc += unitPixiesX*xScale;
-				
-				if(bode){
-					counterBode += xScale;
-					valueBode = Math.pow(10, counterBode);		
-				}else{ abcissa += xScale; }
-				
+			for(int i=0; i<ticks.size(); i++){
+				int x = ticks.getPixel(i);
 				if(this.guideLines){
 					g.setColor(guideLinesColor);
-					g.drawLine((int)Math.round(xInc), 0, (int)Math.round(xInc), getHeight());
+					g.drawLine(x, 0, x, getHeight());
 					g.setColor(Color.BLACK);
 				}
-				
+				g.drawString(ticks.getLabel(i), x, axis+generalFont.getSize());
+				g.drawLine(x, axis, x, axis+2);
 			}
 		}
 		
 	}
 	
+	/**
+	 * Writes the x axis, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #writeXAxis(Graphics, Font, double, double, double)}
+	 */
+	@Deprecated
+	protected void writeXAxis(Graphics g, Font generalFont, double unitPixiesX, int axisHeight, int axisWidth){
+		writeXAxis(g, generalFont, unitPixiesX, (double) axisHeight, (double) axisWidth);
+	}
+	
 	/**
 	 * Transforms a certain coordinate into a point on the graphic.
 	 * 
@@ -642,7 +1827,7 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * Axis height in pixels
 	 * @return The coordinate transformed into a point on the graphic
 	 */
-	protected Point transformCoordinate(Point2D coordinate, int unitPixiesX, int unitPixiesY, int axisWidth, int axisHeight){
+	protected Point transformCoordinate(Point2D coordinate, double unitPixiesX, double unitPixiesY, double axisWidth, double axisHeight){
 		
 		int x = transformX(coordinate.getX(), unitPixiesX, axisWidth,bode);
 		int y = transformY(coordinate.getY(), unitPixiesY, axisHeight);
@@ -651,6 +1836,16 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 		
 	}
 	
+	/**
+	 * Transforms a certain coordinate into a point on the graphic, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #transformCoordinate(Point2D, double, double, double, double)}
+	 */
+	@Deprecated
+	protected Point transformCoordinate(Point2D coordinate, int unitPixiesX, int unitPixiesY, int axisWidth, int axisHeight){
+		return transformCoordinate(coordinate, (double) unitPixiesX, (double) unitPixiesY, (double) axisWidth, (double) axisHeight);
+	}
+	
 	/**
 	 * Transfom an abcises into the correspondent pixels on the graphic.
 	 * 
@@ -664,10 +1859,20 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @return
 	 * The abscises transformed into the graphic position
 	 */
-	protected int transformX(double x, int unitPixiesX, int axisWidth, boolean bode){ 
+	protected int transformX(double x, double unitPixiesX, double axisWidth, boolean bode){ 
 		return  bode? transformX(Math.log10(x), unitPixiesX, axisWidth, false):(int)Math.round( axisWidth + x * unitPixiesX );
 	}
 	
+	/**
+	 * Transfom an abcises into the correspondent pixels on the graphic, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #transformX(double, double, double, boolean)}
+	 */
+	@Deprecated
+	protected int transformX(double x, int unitPixiesX, int axisWidth, boolean bode){
+		return transformX(x, (double) unitPixiesX, (double) axisWidth, bode);
+	}
+	
 	/**
 	 * Inverse transform a y position into a ordiante.
 	 * 
@@ -680,10 +1885,20 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @return
 	 * The ordinate transformed into the graphic position
 	 */
-	protected int transformY(double y, int unitPixiesY, int axisHeight) { 
+	protected int transformY(double y, double unitPixiesY, double axisHeight) { 
 		return (int) Math.round(axisHeight -y * unitPixiesY); 
 	}
 	
+	/**
+	 * Transfom an ordinate into the correspondent pixels on the graphic, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #transformY(double, double, double)}
+	 */
+	@Deprecated
+	protected int transformY(double y, int unitPixiesY, int axisHeight){
+		return transformY(y, (double) unitPixiesY, (double) axisHeight);
+	}
+	
 	/**
 	 * Inverse transform the x position into an abcises given by the internal monitor variable of the mouse position into
 	 * a valid abcises.
@@ -695,11 +1910,21 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @return
 	 * The x position transformed into abcises
 	 */
-	protected float insverseTransformX(int axisWidth,int unitPixiesX){
+	protected float insverseTransformX(double axisWidth,double unitPixiesX){
 		float linear =  (((float)(-axisWidth+mousePosition.x))/((float)unitPixiesX));	
 		return (float) (bode?Math.pow(10, linear):linear);
 	}
 	
+	/**
+	 * Inverse transform the x position of the mouse into an abcises, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #insverseTransformX(double, double)}
+	 */
+	@Deprecated
+	protected float insverseTransformX(int axisWidth,int unitPixiesX){
+		return insverseTransformX((double) axisWidth, (double) unitPixiesX);
+	}
+	
 	/**
 	 * Inverse transform the y position into an ordinate given by the internal monitor variable of the mouse position into
 	 * a valid ordinate.
@@ -711,10 +1936,20 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @return
 	 * The y position transformed into ordinate
 	 */
-	protected float insverseTransformY(int axisHeight, int unitPixiesY){
+	protected float insverseTransformY(double axisHeight, double unitPixiesY){
 		return  (((float)(axisHeight-mousePosition.y))/((float)unitPixiesY));
 	}
 	
+	/**
+	 * Inverse transform the y position of the mouse into an ordinate, with the pixels mapping rounded.
+	 * 
+	 * @deprecated The pixels are mapped in double precision, use {@link #insverseTransformY(double, double)}
+	 */
+	@Deprecated
+	protected float insverseTransformY(int axisHeight, int unitPixiesY){
+		return insverseTransformY((double) axisHeight, (double) unitPixiesY);
+	}
+	
 	/**
 	 * 
 	 * @return Se o eixo das abcissas est� vis�vel
@@ -742,20 +1977,21 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 * @throws BiffException 
 	 * Covers file format not recognizable
 	 * @throws ReservedNameException
-	 * It will be throw if a name complaint with the er ^F//d+$ is added, these names are reserved so that the user can
-	 * add function with out specifing a name
+	 * It is not thrown, the names complaint with the er ^F//d+$, which are reserved so that the user can add function 
+	 * with out specifing a name, are replaced by generated ones
 	 */
 	public void loadFromWorkBook(String fileName,Integer[] sheets, boolean loadSelected) throws IOException, BiffException, ReservedNameException {
 
-		File file = new File(fileName);
+		long start = Metrics.ENABLED?System.nanoTime():0;
 		
-		Workbook workbook = Workbook.getWorkbook(file);
+		WorkbookReader reader = new WorkbookReader(new File(fileName));
 		
 		if(!loadSelected){
 			
 			ArrayList<Integer> loadSheets = new ArrayList<Integer>();
+			int numberOfSheets = reader.getNumberOfSheets();
 			
-			for(int i=0;i<workbook.getNumberOfSheets();i++){
+			for(int i=0;i<numberOfSheets;i++){
 				boolean loadIt = true;
 				for(int j=0; j<sheets.length;j++)
 					if(i==sheets[j])
@@ -767,20 +2003,20 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 			
 		}
 		
-		for(Integer sheet: sheets){
-			
-			LinkedList<Point2D.Double> points = new LinkedList<Point2D.Double>(); 
-			
-			try{
-				for(int i=2;i<workbook.getSheet(sheet).getColumn(0).length && i<workbook.getSheet(sheet).getColumn(1).length;i++){
-					points.add( new Point2D.Double( java.lang.Double.parseDouble( workbook.getSheet(sheet).getCell(0, i).getContents() ), java.lang.Double.parseDouble( workbook.getSheet(sheet).getCell(1, i).getContents() ) ) );
-				}
-			}catch(NumberFormatException e){}
-			
-			this.addFunction(points.toArray(new Point2D.Double[points.size()]), workbook.getSheet(sheet).getCell(1, 0).getContents(), new Color(Integer.parseInt(workbook.getSheet(sheet).getCell(3, 0).getContents())));
-			
+		int[] indexes = new int[sheets.length];
+		for(int i=0; i<sheets.length; i++)
+			indexes[i] = sheets[i];
+		
+		//The sheets are read in parallel and only then added, in their order
+		FunctionData[] read = reader.read(indexes);
+		long rows = 0;
+		
+		for(FunctionData function : read){
+			rows += function.getXs().length;
+			this.addFunction(function.getXs(), function.getYs(), loadedName(function.getName()), function.getColor());
 		}
-		workbook.close();
+		
+		if(Metrics.ENABLED) Metrics.recordWorkbookLoad(rows, new File(fileName).length(), System.nanoTime()-start);
 		
 	}
 	
@@ -793,15 +2029,138 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 */
 	public int howManySheetsInFile(String fileName) throws BiffException, IOException{
 		
-		Workbook workbook = Workbook.getWorkbook(new File(fileName));
-		int sheetsNumber = workbook.getNumberOfSheets();
-		workbook.close();
-		return sheetsNumber;
+		return new WorkbookReader(new File(fileName)).getNumberOfSheets();
 		
 	}
 	
+	/**
+	 * Loads all the sheets of a file into the graphic, the functions exported in several sheets are joined.
+	 * 
+	 * @param fileName
+	 * File to load
+	 * @throws IOException 
+	 * Covers file not found exception, file in use by another process...
+	 * @throws BiffException 
+	 * Covers file format not recognizable
+	 * @throws ReservedNameException
+	 * It is not thrown, the reserved names in the file are replaced by generated ones
+	 * @see #loadFromWorkBook(String, Integer[], boolean)
+	 */
+	public void loadFromWorkBook(String fileName) throws IOException, BiffException, ReservedNameException { 
+		loadFromWorkBook(fileName, new Integer[0], false); 
+	}
+	
+	/**
+	 * Exports the functions to a excel file 98-2003 compatible with number cells, writes it and closes it.
+	 * The functions with more points than the rows of a sheet continue in the following sheets, and are joined again
+	 * by {@link #loadFromWorkBook(String)}.
+	 * 
+	 * @param fileName 
+	 * The file name that will be assigned to the file
+	 * @return The number of sheets written
+	 * @throws WriteException
+	 * @throws IOException 
+	 * Covers file not found, file in use by other process...
+	 */
+	public int exportToWorkBook(String fileName) throws WriteException, IOException {
+		
+		long start = Metrics.ENABLED?System.nanoTime():0;
+		
+		Collection<Function> functions = getFunctions();
+		int sheets = new WorkbookWriter(new File(fileName)).write(functions);
+		
+		if(Metrics.ENABLED){
+			long rows = 0;
+			for(Function function : functions)
+				rows += function.getSeries().size();
+			Metrics.recordWorkbookSave(rows, new File(fileName).length(), System.nanoTime()-start);
+		}
+		
+		return sheets;
+		
+	}
+	
+	/**
+	 * Loads a function from a series file, the file is mapped in memory and its points are read from it when drawn.
+	 * The file must not be changed while the function is in the graphic.
+	 * 
+	 * @param fileName
+	 * File to load
+	 * @return
+	 * The function name, generated if the name in the file is complaint with the er ^F//d+$
+	 * @throws IOException
+	 * Covers file not found, file not in the format...
+	 * @throws ReservedNameException
+	 * It is not thrown, the reserved names in the file are replaced by generated ones
+	 * @see SeriesFile
+	 */
+	public String loadFromSeriesFile(String fileName) throws IOException, ReservedNameException {
+		SeriesFile file = SeriesFile.open(new File(fileName));
+		return addFunction(file.getSeries(), loadedName(file.getName()), file.getColor());
+	}
+	
+	/**
+	 * Saves a function to a series file.
+	 * 
+	 * @param name
+	 * The function name
+	 * @param fileName
+	 * The file name that will be assigned to the file
+	 * @return
+	 * False if there is no function with the name
+	 * @throws IOException
+	 * Covers file in use by other process...
+	 * @see SeriesFile
+	 */
+	public boolean saveToSeriesFile(String name, String fileName) throws IOException {
+		Function function = getFunction(name);
+		if(function == null) return false;
+		SeriesFile.write(new File(fileName), function.getName(), function.getColor(), function.getSeries());
+		return true;
+	}
+	
+	/**
+	 * Loads the functions in a file of comma separated values into the graphic.
+	 * 
+	 * @param fileName
+	 * File to load
+	 * @return
+	 * The names of the functions added, generated if the file has no names or if they are complaint with the er ^F//d+$
+	 * @throws IOException
+	 * Covers file not found, file in use by another process...
+	 * @throws ReservedNameException
+	 * It is not thrown, the reserved names in the file are replaced by generated ones
+	 * @see CsvReader
+	 */
+	public String[] loadFromCsv(String fileName) throws IOException, ReservedNameException {
+		
+		FunctionData[] read = new CsvReader(new File(fileName)).read();
+		String[] names = new String[read.length];
+		
+		for(int i=0; i<read.length; i++)
+			names[i] = this.addFunction(read[i].getXs(), read[i].getYs(), loadedName(read[i].getName()), read[i].getColor());
+		
+		return names;
+		
+	}
+	
+	/**
+	 * Saves the functions to a file of comma separated values.
+	 * 
+	 * @param fileName
+	 * The file name that will be assigned to the file
+	 * @throws IOException
+	 * Covers file in use by other process...
+	 * @see CsvWriter
+	 */
+	public void saveToCsv(String fileName) throws IOException {
+		new CsvWriter(new File(fileName)).write(getFunctions());
+	}
+	
 	/**
 	 * Saves the functions to a excel file 98-2003 compatible.
+	 * The workbook returned still has to be written and closed, and each function must fit in a sheet, 
+	 * {@link #exportToWorkBook(String)} does not have these limits.
 	 * 
 	 * @param fileName 
 	 * The file name that will be assigned to the file
@@ -814,15 +2173,17 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	 */
 	public WritableWorkbook saveToWorkBook(String fileName) throws RowsExceededException, WriteException, IOException {
 
+		long start = Metrics.ENABLED?System.nanoTime():0, rows = 0;
+		
 		File file = new File(fileName);
 		
 		WritableWorkbook workbook = Workbook.createWorkbook(file);
 		
-		Enumeration<Function> functionsIterator = functions.elements();
+		Iterator<Function> functionsIterator = functions.get().values().iterator();
 		
-		while(functionsIterator.hasMoreElements()){
+		while(functionsIterator.hasNext()){
 			
-			Function function = functionsIterator.nextElement();
+			Function function = functionsIterator.next();
 			
 			WritableSheet sheet = workbook.createSheet(function.getName().length()<20?function.getName():function.getName().substring(0, 20).concat("..."), workbook.getNumberOfSheets()); 
 			
@@ -834,13 +2195,20 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 			sheet.addCell(new Label(0, 1, "Abcissa"));
 			sheet.addCell(new Label(1, 1, "Ordenada"));
 			
-			for(int i=0; i < function.getPoints().length; i++){
-				sheet.addCell(new Label(0, i+2, function.getPoints()[i].getX()+""));
-				sheet.addCell(new Label(1, i+2, function.getPoints()[i].getY()+""));
+			Series series = function.getSeries().snapshot();
+			
+			for(int i=0; i < series.size(); i++){
+				sheet.addCell(new Label(0, i+2, series.getX(i)+""));
+				sheet.addCell(new Label(1, i+2, series.getY(i)+""));
 			}
 			
+			rows += series.size();
+			
 		}
 		
+		//The workbook is written by the caller, so its size is not known
+		if(Metrics.ENABLED) Metrics.recordWorkbookSave(rows, 0, System.nanoTime()-start);
+		
 		return workbook;
 		
 	}
@@ -856,6 +2224,11 @@ public class MGraphic extends JComponent implements MouseMotionListener{
 	public void mouseDragged(MouseEvent arg) {}
 
 	@Override
-	public void mouseMoved(MouseEvent arg) { mousePosition = arg.getPoint();repaint(); }
+	public void mouseMoved(MouseEvent arg) { 
+		Rectangle before = getMouseLabelBounds();
+		mousePosition = arg.getPoint();
+		if(before != null) repaint(before);
+		repaint(getMouseLabelBounds());
+	}
 	
 }
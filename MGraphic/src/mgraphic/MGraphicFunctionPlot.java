@@ -1,10 +1,20 @@
 package mgraphic;
 
 import java.awt.Color;
-import java.awt.geom.Point2D;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import mgraphic.functions.ReservedNameException;
+import mgraphic.functions.Series;
+import mgraphic.functions.SeriesBuilder;
+import mgraphic.metrics.Metrics;
 
 /**
  * A graphic element that plots mathematical functions.
@@ -15,6 +25,50 @@ import mgraphic.functions.ReservedNameException;
 @SuppressWarnings("serial")
 public class MGraphicFunctionPlot extends MGraphic{
 	
+	/**
+	 * The size in pixels assumed when sampling adaptively before the graphic is given a size.
+	 */
+	public static final int DEFAULT_SAMPLING_SIZE = 1000;
+	/**
+	 * The most intervals the abcises range is divided before the adaptive sampling starts to subdivide them, fewer if 
+	 * the maximum number of evaluations is lower.
+	 */
+	private static final int ADAPTIVE_INITIAL_INTERVALS = 16;
+	/**
+	 * The number of chunks by processor the abcises are divided when sampling in parallel.
+	 */
+	private static final int PARALLEL_CHUNKS_BY_PROCESSOR = 4;
+	/**
+	 * The number of abcises evaluated together by the uniform sampling.
+	 */
+	private static final int SAMPLING_BLOCK = 1024;
+	
+	/**
+	 * The executor shared by the graphics that sample in parallel without specifying one.
+	 */
+	private static ExecutorService defaultSamplingExecutor;
+	
+	/**
+	 * How the mathematical functions are sampled.
+	 */
+	private Sampling sampling;
+	/**
+	 * The maximum distance in pixels between the function and the lines drawn when sampling adaptively.
+	 */
+	private double samplingTolerance;
+	/**
+	 * The maximum number of evaluations when sampling adaptively, 0 to use the number of the uniform sampling, at least 3
+	 * evaluations are always made.
+	 */
+	private int maxEvaluations;
+	/**
+	 * The executor used to sample thread safe functions in parallel, null to sample in the calling thread.
+	 */
+	private ExecutorService samplingExecutor;
+	/**
+	 * The cache of the samples of the uniform sampling, null if the samples are not kept.
+	 */
+	private SampleCache sampleCache;
 	
 	/**
 	 * Constructs a MGraphicFunctionPlot able of ploting mathematical expressions.
@@ -35,6 +89,126 @@ public class MGraphicFunctionPlot extends MGraphic{
 			boolean guideLines, boolean showMouseCoordinates,
 			boolean functionName) {
 		super(xMin, yMin, xMax, yMax, xScale, yScale, bode, guideLines, showMouseCoordinates, functionName);
+		this.sampling = Sampling.UNIFORM;
+		this.samplingTolerance = 0.5;
+	}
+	
+	/**
+	 * Defines how the samples of a mathematical function are taken.
+	 * 
+	 * @author Rafael Campos
+	 * @since 0.0.1
+	 */
+	public static enum Sampling{
+		/**
+		 * The samples are taken by the offset given by the precision of the function.
+		 */
+		UNIFORM,
+		/**
+		 * The intervals where the function is not close enough to a line are recursively divided, 
+		 * the function is sampled densely where it bends and sparsely where it is straight.
+		 */
+		ADAPTIVE;
+	}
+	
+	/**
+	 * 
+	 * @param sampling How the mathematical functions added afterwards will be sampled
+	 */
+	public void setSampling(Sampling sampling){
+		if(sampling == null) throw new IllegalArgumentException();
+		this.sampling = sampling;
+	}
+	
+	/**
+	 * 
+	 * @return How the mathematical functions are sampled
+	 */
+	public Sampling getSampling() { return sampling; }
+	
+	/**
+	 * 
+	 * @param samplingTolerance 
+	 * The maximum distance in pixels between the function and the lines drawn when sampling adaptively
+	 * @param maxEvaluations 
+	 * The maximum number of evaluations of a function when sampling adaptively, 
+	 * 0 to not take more samples than the uniform sampling would, the ends and the middle of the range are always 
+	 * evaluated so at least 3 evaluations are made
+	 */
+	public void setAdaptiveSampling(double samplingTolerance, int maxEvaluations){
+		if(samplingTolerance<=0 || maxEvaluations<0) throw new IllegalArgumentException();
+		this.samplingTolerance = samplingTolerance;
+		this.maxEvaluations = maxEvaluations;
+	}
+	
+	/**
+	 * 
+	 * @return The maximum distance in pixels between the function and the lines drawn when sampling adaptively
+	 */
+	public double getSamplingTolerance() { return samplingTolerance; }
+	
+	/**
+	 * 
+	 * @return The maximum number of evaluations when sampling adaptively, 0 if it is the number of the uniform sampling
+	 */
+	public int getMaxEvaluations() { return maxEvaluations; }
+	
+	/**
+	 * 
+	 * @param parallel 
+	 * True and the thread safe mathematical functions will be sampled uniformly in parallel by an executor shared 
+	 * with the other graphics, false and they will be sampled in the calling thread
+	 */
+	public void setParallelSampling(boolean parallel){ this.samplingExecutor = parallel?getDefaultSamplingExecutor():null; }
+	
+	/**
+	 * 
+	 * @param samplingExecutor 
+	 * The executor that will sample uniformly the thread safe mathematical functions, 
+	 * null and they will be sampled in the calling thread
+	 */
+	public void setParallelSampling(ExecutorService samplingExecutor){ this.samplingExecutor = samplingExecutor; }
+	
+	/**
+	 * 
+	 * @return The executor that samples the thread safe mathematical functions, null if they are sampled in the calling thread
+	 */
+	public ExecutorService getSamplingExecutor() { return samplingExecutor; }
+	
+	/**
+	 * 
+	 * @param sampleCache 
+	 * The cache where the samples of the uniform sampling are kept and looked for, it may be shared with other graphics, 
+	 * null and the functions will be calculated every time they are sampled. Only the functions with a cache key are kept
+	 * @see MathFunction#getCacheKey()
+	 */
+	public void setSampleCache(SampleCache sampleCache){ this.sampleCache = sampleCache; }
+	
+	/**
+	 * 
+	 * @return The cache of the samples of the uniform sampling, null if the samples are not kept
+	 */
+	public SampleCache getSampleCache() { return sampleCache; }
+	
+	/**
+	 * 
+	 * @return The executor shared by the graphics that sample in parallel, it has a daemon thread by processor
+	 */
+	public static synchronized ExecutorService getDefaultSamplingExecutor(){
+		
+		if(defaultSamplingExecutor == null){
+			defaultSamplingExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "MGraphic sampling");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		
+		return defaultSamplingExecutor;
+		
 	}
 	
 	/**
@@ -128,6 +302,31 @@ public class MGraphicFunctionPlot extends MGraphic{
 		 */
 		public abstract double calculateFunction(double... parameters);
 		
+		/**
+		 * Calculates the function at an abcises, the sampling calls this method or evaluate instead of calculateFunction.
+		 * By default it calls calculateFunction, the functions of one variable should override it so that no array 
+		 * is allocated by sample.
+		 * 
+		 * @param x The abcises
+		 * @return The function calculated at the abcises
+		 */
+		public double calculate(double x){ return calculateFunction(x); }
+		
+		/**
+		 * Calculates the function at several abcises, the uniform sampling evaluates the abcises by blocks through this method.
+		 * By default it calls calculate for each abcises, the functions that are cheap to calculate should override it 
+		 * with their own loop, which the compiler can inline and optimize.
+		 * 
+		 * @param xs The abcises
+		 * @param out The array to where the function is calculated, at the same positions of the abcises
+		 * @param from The index of the first abcises
+		 * @param to The index after the last abcises
+		 */
+		public void evaluate(double[] xs, double[] out, int from, int to){
+			for(int i=from; i<to; i++)
+				out[i] = calculate(xs[i]);
+		}
+		
 		@Override
 		public abstract String toString();
 	
@@ -173,6 +372,23 @@ public class MGraphicFunctionPlot extends MGraphic{
 		 */
 		public boolean getBode() { return bode; }
 		
+		/**
+		 * A function that declares itself thread safe may have calculate and evaluate called concurrently
+		 * by several threads when the graphic samples in parallel.
+		 * 
+		 * @return True if the function can be calculated concurrently, false by default
+		 */
+		public boolean isThreadSafe() { return false; }
+		
+		/**
+		 * The identity of the function in a sample cache, the functions with equal keys must calculate the same values.
+		 * The key must be a value, e.g. a string naming what is calculated, that is equal for the functions created again
+		 * to calculate the same and that does not keep the function, since a shared cache keeps the keys until evicted.
+		 * 
+		 * @return Null by default, the function is not cacheable and is calculated every time it is sampled
+		 */
+		public Object getCacheKey() { return null; }
+		
 	}
 	
 	/**
@@ -187,19 +403,364 @@ public class MGraphicFunctionPlot extends MGraphic{
 	 */
 	public void addMathFunction(MathFunction mathFunction, boolean bode) throws ReservedNameException{
 		
-		LinkedList<Point2D.Double> points = new LinkedList<Point2D.Double>(); 
-		System.out.println(mathFunction.getxMin()+" "+mathFunction.getxMax());
-		for (double offSet = mathFunction.getxMin(); offSet < mathFunction.getxMax(); offSet+=mathFunction.getOffSet()) {
+		SeriesBuilder points = sampling==Sampling.ADAPTIVE?sampleAdaptive(mathFunction):sampleUniform(mathFunction);
+		
+		super.addFunction(points.getXs(), points.getYs(), mathFunction.toString(), mathFunction!=null?mathFunction.getColor():Color.BLACK);
+	
+	}
+	
+	/**
+	 * Samples the function by the offset given by its precision.
+	 * 
+	 * @param mathFunction 
+	 * The mathematical function to sample
+	 * @return
+	 * The samples within the function ordinate bounds
+	 */
+	protected SeriesBuilder sampleUniform(MathFunction mathFunction){
+		
+		SampleCache cache = sampleCache;
+		
+		if(cache != null && mathFunction.getCacheKey() != null)
+			return sampleCached(mathFunction, cache);
+		
+		if(samplingExecutor != null && mathFunction.isThreadSafe())
+			return sampleParallel(mathFunction, samplingExecutor);
+		
+		int samples = 0;
+		for (double offSet = mathFunction.getxMin(); offSet < mathFunction.getxMax(); offSet+=mathFunction.getOffSet()) 
+			samples++;
+		
+		//Sized for every sample so that the points are not copied as they are added
+		SeriesBuilder points = new SeriesBuilder(samples); 
+		double[] xs = new double[Math.min(samples, SAMPLING_BLOCK)], ys = new double[xs.length];
+		
+		for (double offSet = mathFunction.getxMin(); offSet < mathFunction.getxMax();) {
+			
+			int count = 0;
+			for (; count < xs.length && offSet < mathFunction.getxMax(); offSet+=mathFunction.getOffSet())
+				xs[count++] = offSet;
 			
-			double image = mathFunction.calculateFunction(offSet);
+			calculate(mathFunction, xs, ys, 0, count);
 			
-			if(image<=mathFunction.getyMax() && image>=mathFunction.getyMin()){
-				points.add(new Point2D.Double(offSet, image));
+			for(int i=0; i<count; i++){
+				if(ys[i]<=mathFunction.getyMax() && ys[i]>=mathFunction.getyMin()){
+					points.add(xs[i], ys[i]);
+				}
 			}
 		}
 		
-		super.addFunction(points.toArray(new Point2D.Double[points.size()]), mathFunction.toString(), mathFunction!=null?mathFunction.getColor():Color.BLACK);
+		return points;
+		
+	}
+	
+	/**
+	 * Samples the function by the offset given by its precision in parallel.
+	 * The abcises are accumulated in the calling thread exactly as the serial sampling does and then they are divided 
+	 * in chunks evaluated by the executor, so the samples are the same.
+	 * 
+	 * @param mathFunction 
+	 * The mathematical function to sample, it must be thread safe
+	 * @param executor
+	 * The executor that evaluates the chunks
+	 * @return
+	 * The samples within the function ordinate bounds
+	 */
+	protected SeriesBuilder sampleParallel(final MathFunction mathFunction, ExecutorService executor){
+		
+		int count = 0;
+		for (double offSet = mathFunction.getxMin(); offSet < mathFunction.getxMax(); offSet+=mathFunction.getOffSet()) 
+			count++;
+		
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		
+		int index = 0;
+		for (double offSet = mathFunction.getxMin(); index < count; offSet+=mathFunction.getOffSet()) 
+			xs[index++] = offSet;
+		
+		calculateParallel(mathFunction, xs, ys, executor);
+		
+		SeriesBuilder points = new SeriesBuilder(count);
+		
+		for(int i=0; i<count; i++){
+			if(ys[i]<=mathFunction.getyMax() && ys[i]>=mathFunction.getyMin()){
+				points.add(xs[i], ys[i]);
+			}
+		}
+		
+		return points;
+		
+	}
+	
+	/**
+	 * Evaluates the function at the abcises in chunks by the executor.
+	 * 
+	 * @param mathFunction 
+	 * The mathematical function to evaluate, it must be thread safe
+	 * @param xs
+	 * The abcises
+	 * @param ys
+	 * The array to where the function is evaluated
+	 * @param executor
+	 * The executor that evaluates the chunks
+	 */
+	private static void calculateParallel(final MathFunction mathFunction, final double[] xs, final double[] ys, ExecutorService executor){
+		
+		int count = xs.length;
+		int chunks = (int) Math.min(count, (long)Runtime.getRuntime().availableProcessors()*PARALLEL_CHUNKS_BY_PROCESSOR);
+		List<Future<Object>> results = new ArrayList<Future<Object>>(chunks);
+		
+		for(int chunk=0; chunk<chunks; chunk++){
+			
+			final int from = (int)((long)count*chunk/chunks), to = (int)((long)count*(chunk+1)/chunks);
+			
+			results.add(executor.submit(new Callable<Object>() {
+				@Override
+				public Object call() {
+					calculate(mathFunction, xs, ys, from, to);
+					return null;
+				}
+			}));
+			
+		}
+		
+		try {
+			for(Future<Object> result : results)
+				result.get();
+		} catch (InterruptedException e) {
+			for(Future<Object> result : results)
+				result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while sampling "+mathFunction, e);
+		} catch (ExecutionException e) {
+			for(Future<Object> result : results)
+				result.cancel(true);
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		
+	}
+	
+	/**
+	 * Samples the function by the offset given by its precision, the samples kept by the cache are reused and the samples 
+	 * taken are kept. The missing samples are evaluated in parallel if none is kept and the function is thread safe.
+	 * 
+	 * @param mathFunction 
+	 * The mathematical function to sample, with a cache key
+	 * @param cache
+	 * The cache of the samples
+	 * @return
+	 * The samples within the function ordinate bounds
+	 */
+	protected SeriesBuilder sampleCached(MathFunction mathFunction, SampleCache cache){
+		
+		int count = 0;
+		for (double offSet = mathFunction.getxMin(); offSet < mathFunction.getxMax(); offSet+=mathFunction.getOffSet()) 
+			count++;
+		
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		boolean[] known = new boolean[count];
+		
+		int index = 0;
+		for (double offSet = mathFunction.getxMin(); index < count; offSet+=mathFunction.getOffSet()) 
+			xs[index++] = offSet;
+		
+		int copied = cache.fill(mathFunction, xs, ys, known, count);
+		
+		if(copied == 0 && count>0 && samplingExecutor != null && mathFunction.isThreadSafe())
+			calculateParallel(mathFunction, xs, ys, samplingExecutor);
+		else
+			for(int from=0, to; from<count; from=to){
+				while(from<count && known[from])
+					from++;
+				for(to=from; to<count && !known[to]; to++);
+				calculate(mathFunction, xs, ys, from, to);
+			}
+		
+		if(copied<count) cache.put(mathFunction, xs, ys);
+		
+		SeriesBuilder points = new SeriesBuilder(count);
+		
+		for(int i=0; i<count; i++){
+			if(ys[i]<=mathFunction.getyMax() && ys[i]>=mathFunction.getyMin()){
+				points.add(xs[i], ys[i]);
+			}
+		}
+		
+		return points;
+		
+	}
+	
+	/**
+	 * Samples the function adaptively.
+	 * The abcises range is divided in intervals whose middle is evaluated, the interval whose middle is farther from the line
+	 * between its ends is divided in two until every middle is within the sampling tolerance, the intervals are narrower than
+	 * the tolerance or the maximum number of evaluations is reached.
+	 * The distances are measured in pixels of this graphic, in the bode case the intervals are divided in the logarithm of the abcises.
+	 * 
+	 * @param mathFunction 
+	 * The mathematical function to sample
+	 * @return
+	 * The samples within the function ordinate bounds
+	 */
+	protected SeriesBuilder sampleAdaptive(MathFunction mathFunction){
+		
+		boolean logarithmic = getBode();
+		double start = logarithmic?Math.log10(mathFunction.getxMin()):mathFunction.getxMin();
+		double end = logarithmic?Math.log10(mathFunction.getxMax()):mathFunction.getxMax();
+		
+		double pixelsX = (getWidth()>0?getWidth():DEFAULT_SAMPLING_SIZE)/(getxMax()-getxMin());
+		double pixelsY = (getHeight()>0?getHeight():DEFAULT_SAMPLING_SIZE)/(getyMax()-getyMin());
+		double minimumWidth = samplingTolerance/pixelsX;
+		
+		long limit = maxEvaluations>0?maxEvaluations:(long)Math.ceil((mathFunction.getxMax()-mathFunction.getxMin())/mathFunction.getOffSet());
+		
+		SeriesBuilder samples = new SeriesBuilder(0);
+		PriorityQueue<Interval> intervals = new PriorityQueue<Interval>();
+		
+		//The start and the end and the middle of each initial interval are evaluated
+		int initial = (int) Math.max(1, Math.min(ADAPTIVE_INITIAL_INTERVALS, (limit-1)/2));
+		
+		double left = start, imageLeft = evaluate(mathFunction, start, logarithmic);
+		samples.add(left, imageLeft);
+		
+		for(int i=1; i<=initial; i++){
+			double right = i==initial?end:start+(end-start)*i/initial;
+			double imageRight = evaluate(mathFunction, right, logarithmic);
+			samples.add(right, imageRight);
+			intervals.add(new Interval(mathFunction, left, imageLeft, right, imageRight, logarithmic, pixelsY, samples));
+			left = right; imageLeft = imageRight;
+		}
+		
+		while(!intervals.isEmpty() && samples.size()+2<=limit){
+			
+			Interval worst = intervals.poll();
+			if(worst.error<=samplingTolerance) break;
+			if(worst.right-worst.left<=minimumWidth) continue;
+			
+			intervals.add(new Interval(mathFunction, worst.left, worst.imageLeft, worst.middle, worst.imageMiddle, logarithmic, pixelsY, samples));
+			intervals.add(new Interval(mathFunction, worst.middle, worst.imageMiddle, worst.right, worst.imageRight, logarithmic, pixelsY, samples));
+			
+		}
+		
+		double[] xs = samples.getXs(), ys = samples.getYs();
+		Series.sort(xs, ys, xs.length);
+		
+		SeriesBuilder points = new SeriesBuilder(xs.length);
+		
+		for(int i=0; i<xs.length; i++){
+			if(ys[i]<=mathFunction.getyMax() && ys[i]>=mathFunction.getyMin()){
+				points.add(logarithmic?Math.pow(10, xs[i]):xs[i], ys[i]);
+			}
+		}
+		
+		return points;
+		
+	}
+	
+	/**
+	 * 
+	 * @param mathFunction
+	 * The mathematical function to evaluate
+	 * @param t
+	 * The abcises or its logarithm
+	 * @param logarithmic
+	 * True if t is the logarithm of the abcises
+	 * @return
+	 * The function evaluated at the abcises
+	 */
+	private static double evaluate(MathFunction mathFunction, double t, boolean logarithmic){
+		return calculate(mathFunction, logarithmic?Math.pow(10, t):t);
+	}
+	
+	/**
+	 * Evaluates the function, the time taken is recorded if the metrics are enabled.
+	 * 
+	 * @param mathFunction
+	 * The mathematical function to evaluate
+	 * @param x
+	 * The abcises
+	 * @return
+	 * The function evaluated at the abcises
+	 */
+	private static double calculate(MathFunction mathFunction, double x){
+		
+		if(!Metrics.ENABLED) return mathFunction.calculate(x);
+		
+		long start = System.nanoTime();
+		double image = mathFunction.calculate(x);
+		Metrics.CALCULATE_FUNCTION.record(System.nanoTime()-start);
+		
+		return image;
+		
+	}
 	
+	/**
+	 * Evaluates the function at several abcises, the time taken is recorded if the metrics are enabled, 
+	 * divided by the abcises evaluated.
+	 * 
+	 * @param mathFunction
+	 * The mathematical function to evaluate
+	 * @param xs
+	 * The abcises
+	 * @param ys
+	 * The array to where the function is evaluated
+	 * @param from
+	 * The index of the first abcises
+	 * @param to
+	 * The index after the last abcises
+	 */
+	private static void calculate(MathFunction mathFunction, double[] xs, double[] ys, int from, int to){
+		
+		if(!Metrics.ENABLED || to<=from){ 
+			mathFunction.evaluate(xs, ys, from, to);
+			return;
+		}
+		
+		long start = System.nanoTime();
+		mathFunction.evaluate(xs, ys, from, to);
+		Metrics.CALCULATE_FUNCTION.record(System.nanoTime()-start, to-from);
+		
+	}
+	
+	/**
+	 * An interval of the adaptive sampling whose middle has been evaluated.
+	 */
+	private static class Interval implements Comparable<Interval>{
+		
+		private final double left, imageLeft, middle, imageMiddle, right, imageRight;
+		/**
+		 * The distance in pixels between the middle and the line between the ends.
+		 */
+		private final double error;
+		
+		/**
+		 * Evaluates the middle of the interval and adds it to the samples.
+		 */
+		private Interval(MathFunction mathFunction, double left, double imageLeft, double right, double imageRight, 
+				boolean logarithmic, double pixelsY, SeriesBuilder samples){
+			
+			this.left = left; this.imageLeft = imageLeft;
+			this.right = right; this.imageRight = imageRight;
+			this.middle = (left+right)/2;
+			this.imageMiddle = evaluate(mathFunction, middle, logarithmic);
+			samples.add(middle, imageMiddle);
+			
+			double error = Math.abs(imageMiddle-(imageLeft+imageRight)/2)*pixelsY;
+			boolean defined = !Double.isNaN(error) && !Double.isInfinite(error);
+			boolean undefined = Double.isNaN(imageLeft) && Double.isNaN(imageMiddle) && Double.isNaN(imageRight);
+			
+			//Where the function is partially undefined or infinite the interval is divided until it is narrow enough
+			this.error = defined?error:undefined?0:Double.POSITIVE_INFINITY;
+			
+		}
+		
+		@Override
+		public int compareTo(Interval other) { return Double.compare(other.error, error); }
+		
 	}
 	
 }
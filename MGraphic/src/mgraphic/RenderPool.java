@@ -0,0 +1,166 @@
+package mgraphic;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draws charts on a fixed number of threads, each thread draws one chart at a time with its own graphic,
+ * so charts can be submitted by any thread.
+ * The functions of the charts are only read, the same function can be drawn by several charts at the same time.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class RenderPool {
+	
+	/**
+	 * The width and the height of the parts in which large charts are divided by default.
+	 */
+	public static final int TILE_SIZE = 512;
+	
+	private final ExecutorService executor;
+	
+	/**
+	 * Uses a thread by processor.
+	 */
+	public RenderPool() { this(Runtime.getRuntime().availableProcessors()); }
+	
+	/**
+	 * 
+	 * @param threads The number of charts drawn at the same time
+	 */
+	public RenderPool(int threads) {
+		
+		if(threads<=0) throw new IllegalArgumentException();
+		
+		final AtomicInteger count = new AtomicInteger();
+		
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "mgraphic-render-"+count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		
+	}
+	
+	/**
+	 * 
+	 * @param chart The chart to draw
+	 * @return The image with the chart drawn, when it is ready
+	 */
+	public Future<BufferedImage> submit(final Chart chart){
+		
+		if(chart == null) throw new IllegalArgumentException();
+		
+		return executor.submit(new Callable<BufferedImage>() {
+			@Override
+			public BufferedImage call() { return chart.render(); }
+		});
+		
+	}
+	
+	/**
+	 * 
+	 * @param chart The chart to draw
+	 * @param file The png file to where the chart is saved
+	 * @return The file, when it is written, or the IOException that prevented it
+	 */
+	public Future<File> submit(final Chart chart, final File file){
+		
+		if(chart == null || file == null) throw new IllegalArgumentException();
+		
+		return executor.submit(new Callable<File>() {
+			@Override
+			public File call() throws Exception { 
+				chart.writePng(file);
+				return file;
+			}
+		});
+		
+	}
+	
+	/**
+	 * Draws a large chart dividing it in parts drawn by the threads of the pool at the same time.
+	 * It must not be called by a thread of the pool.
+	 * 
+	 * @param chart The chart to draw
+	 * @return The image with the chart drawn
+	 * @throws InterruptedException If the thread is interrupted while waiting for the parts
+	 * @throws ExecutionException If a part could not be drawn
+	 */
+	public BufferedImage render(Chart chart) throws InterruptedException, ExecutionException { 
+		return render(chart, TILE_SIZE); 
+	}
+	
+	/**
+	 * Draws a large chart dividing it in parts drawn by the threads of the pool at the same time,
+	 * each part only reads the points of the functions near it.
+	 * It must not be called by a thread of the pool.
+	 * 
+	 * @param chart The chart to draw
+	 * @param tileSize The width and the height in pixels of the parts
+	 * @return The image with the chart drawn
+	 * @throws InterruptedException If the thread is interrupted while waiting for the parts
+	 * @throws ExecutionException If a part could not be drawn
+	 */
+	public BufferedImage render(final Chart chart, int tileSize) throws InterruptedException, ExecutionException {
+		
+		if(chart == null || tileSize<=0) throw new IllegalArgumentException();
+		
+		final BufferedImage image = new BufferedImage(chart.getWidth(), chart.getHeight(), BufferedImage.TYPE_INT_RGB);
+		List<Future<?>> tiles = new ArrayList<Future<?>>();
+		
+		try{
+			
+			for(int y=0; y<chart.getHeight(); y+=tileSize)
+				for(int x=0; x<chart.getWidth(); x+=tileSize){
+					final Rectangle area = new Rectangle(x, y, Math.min(tileSize, chart.getWidth()-x), Math.min(tileSize, chart.getHeight()-y));
+					tiles.add(executor.submit(new Runnable() {
+						@Override
+						public void run() { chart.render(image, area); }
+					}));
+				}
+			
+			for(Future<?> tile : tiles)
+				tile.get();
+			
+		} finally {
+			for(Future<?> tile : tiles)
+				tile.cancel(true);
+		}
+		
+		return image;
+		
+	}
+	
+	/**
+	 * No more charts are accepted, the charts submitted before are still drawn.
+	 */
+	public void shutdown(){ executor.shutdown(); }
+	
+	/**
+	 * 
+	 * @param timeout The maximum time to wait
+	 * @param unit The unit of timeout
+	 * @return True if all the charts were drawn after shutdown, false if the time ran out
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException { 
+		return executor.awaitTermination(timeout, unit); 
+	}
+	
+}
@@ -0,0 +1,312 @@
+package mgraphic;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import mgraphic.MGraphicFunctionPlot.MathFunction;
+
+/**
+ * Keeps the samples taken by the uniform sampling of mathematical functions, so that sampling a function again
+ * does not calculate it again. A cache may be shared by several graphics.
+ * The samples are found by the cache key of the function, its offset and whether it is a bode, and the samples of an
+ * overlapping range are reused where their abcises are within TOLERANCE offsets of the abcises sampled, the abcises kept
+ * replacing them. The samples are kept before the ordinate bounds are applied, so the functions that only differ in 
+ * them share their samples. The functions without a cache key are not kept.
+ * The least recently used samples are evicted when the cache takes more bytes than its budget.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class SampleCache {
+	
+	/**
+	 * The bytes taken by a sample, its abcises and its ordinate.
+	 */
+	private static final int SAMPLE_BYTES = 16;
+	/**
+	 * The bytes taken by an entry without its samples.
+	 */
+	private static final int ENTRY_BYTES = 96;
+	/**
+	 * The largest distance, in offsets, between two abcises taken for the same, the abcises are sums of the offset
+	 * and the rounding errors of the sums depend on where the sums start.
+	 */
+	static final double TOLERANCE = 1e-6;
+	
+	private final long maxBytes;
+	/**
+	 * The entries, the least recently used first.
+	 */
+	private final LinkedHashMap<Entry, Entry> entries;
+	private long bytes;
+	private long hits, partialHits, misses, evictions;
+	
+	/**
+	 * 
+	 * @param maxBytes The maximum number of bytes taken by the samples kept
+	 */
+	public SampleCache(long maxBytes) {
+		if(maxBytes<0) throw new IllegalArgumentException();
+		this.maxBytes = maxBytes;
+		this.entries = new LinkedHashMap<Entry, Entry>(16, 0.75f, true);
+	}
+	
+	/**
+	 * Copies the samples kept of the function at the abcises given.
+	 * 
+	 * @param function The function sampled, with a cache key
+	 * @param xs The abcises of the samples, sorted, those of the samples copied are replaced by the abcises kept
+	 * @param ys The array to where the ordinates kept are copied
+	 * @param known Set to true at the abcises whose ordinates were copied
+	 * @param count The number of abcises
+	 * @return The number of ordinates copied
+	 */
+	int fill(MathFunction function, double[] xs, double[] ys, boolean[] known, int count){
+		
+		if(function.getCacheKey() == null) throw new IllegalArgumentException();
+		
+		List<Entry> overlapping = new ArrayList<Entry>();
+		
+		synchronized (this) {
+			if(count>0)
+				for(Entry entry : entries.keySet())
+					if(entry.isFamilyOf(function) && entry.last()>=xs[0] && entry.first()<=xs[count-1])
+						overlapping.add(entry);
+			//Marks the entries as used
+			for(Entry entry : overlapping)
+				entries.get(entry);
+		}
+		
+		int copied = 0;
+		double tolerance = function.getOffSet()*TOLERANCE;
+		
+		for(Entry entry : overlapping){
+			int i = lowerBound(xs, count, entry.first()-tolerance);
+			int j = i<count?lowerBound(entry.xs, entry.xs.length, xs[i]-tolerance):entry.xs.length;
+			while(i<count && j<entry.xs.length){
+				double difference = xs[i]-entry.xs[j];
+				if(Math.abs(difference)<=tolerance){
+					if(!known[i]){
+						xs[i] = entry.xs[j];
+						ys[i] = entry.ys[j];
+						known[i] = true;
+						copied++;
+					}
+					i++;
+					j++;
+				}
+				else if(difference<0) i++;
+				else j++;
+			}
+		}
+		
+		synchronized (this) {
+			if(count>0 && copied==count) hits++;
+			else if(copied>0) partialHits++;
+			else misses++;
+		}
+		
+		return copied;
+		
+	}
+	
+	/**
+	 * Keeps the samples of a function, the entries whose samples are all among them are replaced.
+	 * 
+	 * @param function The function sampled, with a cache key
+	 * @param xs The abcises of the samples, sorted, the array is kept by the cache
+	 * @param ys The ordinates of the samples, the array is kept by the cache
+	 */
+	synchronized void put(MathFunction function, double[] xs, double[] ys){
+		
+		if(function.getCacheKey() == null) throw new IllegalArgumentException();
+		if(xs.length == 0) return;
+		
+		Entry added = new Entry(function.getCacheKey(), function.getOffSet(), function.getBode(), xs, ys);
+		
+		if(added.getBytes()>maxBytes) return;
+		
+		for(Iterator<Entry> iterator = entries.keySet().iterator(); iterator.hasNext();){
+			Entry entry = iterator.next();
+			if(entry.equals(added) || added.contains(entry)){
+				iterator.remove();
+				bytes -= entry.getBytes();
+			}
+		}
+		
+		entries.put(added, added);
+		bytes += added.getBytes();
+		
+		for(Iterator<Entry> iterator = entries.keySet().iterator(); bytes>maxBytes && iterator.hasNext();){
+			Entry eldest = iterator.next();
+			if(eldest == added) continue;
+			iterator.remove();
+			bytes -= eldest.getBytes();
+			evictions++;
+		}
+		
+	}
+	
+	/**
+	 * Forgets the samples kept, the counters are kept.
+	 */
+	public synchronized void clear(){
+		entries.clear();
+		bytes = 0;
+	}
+	
+	/**
+	 * 
+	 * @return The maximum number of bytes taken by the samples kept
+	 */
+	public long getMaxBytes() { return maxBytes; }
+	
+	/**
+	 * 
+	 * @return The number of bytes taken by the samples kept
+	 */
+	public synchronized long getBytes() { return bytes; }
+	
+	/**
+	 * 
+	 * @return The number of ranges of samples kept
+	 */
+	public synchronized int size() { return entries.size(); }
+	
+	/**
+	 * 
+	 * @return The number of samplings whose samples were all kept
+	 */
+	public synchronized long getHits() { return hits; }
+	
+	/**
+	 * 
+	 * @return The number of samplings with some of their samples kept
+	 */
+	public synchronized long getPartialHits() { return partialHits; }
+	
+	/**
+	 * 
+	 * @return The number of samplings with none of their samples kept
+	 */
+	public synchronized long getMisses() { return misses; }
+	
+	/**
+	 * 
+	 * @return The number of ranges of samples evicted to keep the cache within its budget
+	 */
+	public synchronized long getEvictions() { return evictions; }
+	
+	@Override
+	public synchronized String toString() {
+		return "SampleCache[bytes="+bytes+"/"+maxBytes+", entries="+entries.size()+", hits="+hits+", partialHits="+partialHits+
+				", misses="+misses+", evictions="+evictions+"]";
+	}
+	
+	/**
+	 * 
+	 * @param xs Sorted abcises
+	 * @param size The number of abcises
+	 * @param x An abcises
+	 * @return The index of the first abcises not smaller than x
+	 */
+	private static int lowerBound(double[] xs, int size, double x){
+		int low = 0, high = size;
+		while(low<high){
+			int middle = (low+high)>>>1;
+			if(xs[middle]<x) low = middle+1;
+			else high = middle;
+		}
+		return low;
+	}
+	
+	/**
+	 * The samples of a range of a function.
+	 */
+	private static class Entry {
+		
+		private final Object key;
+		private final double offSet;
+		private final boolean bode;
+		private final double[] xs, ys;
+		
+		/**
+		 * 
+		 * @param key The cache key of the function
+		 * @param offSet The offset between the abcises
+		 * @param bode True if the function is a bode
+		 * @param xs The abcises, sorted
+		 * @param ys The ordinates
+		 */
+		Entry(Object key, double offSet, boolean bode, double[] xs, double[] ys) {
+			this.key = key;
+			this.offSet = offSet;
+			this.bode = bode;
+			this.xs = xs;
+			this.ys = ys;
+		}
+		
+		/**
+		 * 
+		 * @param function A function
+		 * @return True if the samples are of the function at the same offset
+		 */
+		boolean isFamilyOf(MathFunction function){
+			return key.equals(function.getCacheKey()) && Double.compare(offSet, function.getOffSet())==0 && bode==function.getBode();
+		}
+		
+		/**
+		 * 
+		 * @param other Other entry
+		 * @return True if the samples of the other entry are all among these samples
+		 */
+		boolean contains(Entry other){
+			
+			if(!key.equals(other.key) || Double.compare(offSet, other.offSet)!=0 || bode!=other.bode) return false;
+			
+			double tolerance = offSet*TOLERANCE;
+			int i = lowerBound(xs, xs.length, other.first()-tolerance);
+			
+			return i+other.xs.length<=xs.length && Math.abs(xs[i]-other.first())<=tolerance && 
+					Math.abs(xs[i+other.xs.length-1]-other.last())<=tolerance;
+			
+		}
+		
+		/**
+		 * 
+		 * @return The first abcises
+		 */
+		double first() { return xs[0]; }
+		
+		/**
+		 * 
+		 * @return The last abcises
+		 */
+		double last() { return xs[xs.length-1]; }
+		
+		/**
+		 * 
+		 * @return The bytes taken by the entry
+		 */
+		long getBytes() { return ENTRY_BYTES+(long)SAMPLE_BYTES*xs.length; }
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Entry)) return false;
+			Entry other = (Entry) obj;
+			return key.equals(other.key) && Double.compare(offSet, other.offSet)==0 && bode==other.bode &&
+					Double.compare(first(), other.first())==0 && Double.compare(last(), other.last())==0 &&
+					xs.length==other.xs.length;
+		}
+		
+		@Override
+		public int hashCode() {
+			long bits = Double.doubleToLongBits(offSet)*31+Double.doubleToLongBits(first())*17+Double.doubleToLongBits(last());
+			return key.hashCode()*31+(int)(bits^(bits>>>32))+(bode?1:0);
+		}
+		
+	}
+	
+}
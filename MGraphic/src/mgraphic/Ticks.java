@@ -0,0 +1,159 @@
+package mgraphic;
+
+import java.text.DecimalFormat;
+
+/**
+ * The ticks of an axis that are visible in a view, with their positions in pixels and their labels.
+ * The ticks are at the multiples of a step, the scale of the axis or, when the scale is too small to keep the ticks
+ * MIN_SPACING pixels apart, the scale times the smallest of 1, 2, 5, 10, 20, 50... that does. Only the visible multiples
+ * are computed, so their number is bounded by the size of the graphic whatever the bounds or the scale.
+ * In the bode case the ticks are at the multiples of the step of the logarithm of the abcises, the decades when the scale is 1.
+ * The labels are formatted once, the ticks are kept while the view does not change.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+class Ticks {
+	
+	/**
+	 * The minimum distance in pixels between two ticks.
+	 */
+	static final int MIN_SPACING = 40;
+	
+	private final double min;
+	private final double max;
+	private final double scale;
+	private final double unit;
+	private final double origin;
+	private final boolean logarithmic;
+	
+	private final int[] pixels;
+	private final String[] labels;
+	
+	/**
+	 * 
+	 * @param min The minimum value shown, the logarithm of the minimum abcises in the bode case
+	 * @param max The maximum value shown, the logarithm of the maximum abcises in the bode case
+	 * @param scale The smallest distance between two ticks
+	 * @param unit The number of pixels of a unit
+	 * @param origin The pixel position of the value 0
+	 * @param logarithmic True if the values are the logarithm of the labels, as the abcises in the bode case
+	 * @param inverted True if the pixel position decreases as the value grows, as the ordinates
+	 */
+	Ticks(double min, double max, double scale, double unit, double origin, boolean logarithmic, boolean inverted) {
+		
+		this.min = min;
+		this.max = max;
+		this.scale = scale;
+		this.unit = unit;
+		this.origin = origin;
+		this.logarithmic = logarithmic;
+		
+		double step = step(scale, unit);
+		
+		if(!(step>0) || Double.isInfinite(step) || !(max>=min) || Double.isInfinite(max-min)){
+			this.pixels = new int[0];
+			this.labels = new String[0];
+			return;
+		}
+		
+		double first = Math.ceil(min/step), last = Math.floor(max/step);
+		//The step keeps the ticks MIN_SPACING pixels apart, more are only possible through rounding
+		int count = (int) Math.max(0, Math.min(last-first+1, (max-min)*unit/MIN_SPACING+2));
+		
+		this.pixels = new int[count];
+		this.labels = new String[count];
+		
+		DecimalFormat format = format(step, Math.max(Math.abs(min), Math.abs(max)));
+		
+		for(int i=0; i<count; i++){
+			double value = (first+i)*step;
+			//Avoids -0 and the rounding errors of the multiples around 0
+			if(Math.abs(value)<step*1e-9) value = 0;
+			double pixel = inverted?origin-value*unit:origin+value*unit;
+			pixels[i] = (int) Math.floor(pixel+0.5);
+			labels[i] = format.format(logarithmic?Math.pow(10, value):value);
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @param scale The smallest distance between two ticks
+	 * @param unit The number of pixels of a unit
+	 * @return The scale times the smallest of 1, 2, 5, 10, 20, 50... that keeps the ticks MIN_SPACING pixels apart
+	 */
+	static double step(double scale, double unit){
+		
+		double spacing = scale*unit;
+		
+		if(!(spacing>0)) return Double.NaN;
+		if(spacing>=MIN_SPACING) return scale;
+		
+		double factor = MIN_SPACING/spacing;
+		double decade = Math.pow(10, Math.floor(Math.log10(factor)));
+		double mantissa = factor/decade;
+		
+		return scale*decade*(mantissa<=1?1:(mantissa<=2?2:(mantissa<=5?5:10)));
+		
+	}
+	
+	/**
+	 * 
+	 * @param step The distance between two ticks
+	 * @param magnitude The largest absolute value of a tick
+	 * @return The format of the labels, with the decimal places needed to tell the ticks apart
+	 */
+	private DecimalFormat format(double step, double magnitude){
+		
+		if(logarithmic) return new DecimalFormat("0.#E0");
+		
+		if(magnitude>=1e9 || step<1e-6) return new DecimalFormat("0.###E0");
+		
+		int decimals = 0;
+		for(double scaled = step; decimals<9 && Math.abs(scaled-Math.rint(scaled))>1e-9*scaled; scaled *= 10)
+			decimals++;
+		
+		DecimalFormat format = new DecimalFormat("0");
+		format.setMaximumFractionDigits(decimals);
+		
+		return format;
+		
+	}
+	
+	/**
+	 * 
+	 * @param min The minimum value shown
+	 * @param max The maximum value shown
+	 * @param scale The smallest distance between two ticks
+	 * @param unit The number of pixels of a unit
+	 * @param origin The pixel position of the value 0
+	 * @param logarithmic True if the values are the logarithm of the labels
+	 * @return True if the ticks were computed for the same view
+	 */
+	boolean matches(double min, double max, double scale, double unit, double origin, boolean logarithmic){
+		return this.min==min && this.max==max && this.scale==scale && this.unit==unit && this.origin==origin &&
+				this.logarithmic==logarithmic;
+	}
+	
+	/**
+	 * 
+	 * @return The number of visible ticks
+	 */
+	int size() { return pixels.length; }
+	
+	/**
+	 * 
+	 * @param i The index of a tick
+	 * @return The position in pixels of the tick
+	 */
+	int getPixel(int i) { return pixels[i]; }
+	
+	/**
+	 * 
+	 * @param i The index of a tick
+	 * @return The formatted value of the tick
+	 */
+	String getLabel(int i) { return labels[i]; }
+	
+}
@@ -0,0 +1,89 @@
+package mgraphic.expression;
+
+import java.util.Locale;
+
+/**
+ * The functions that may be called in an expression, each is a static method of java.lang.Math of the same name.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+enum Builtin {
+	
+	SIN(1), COS(1), TAN(1), ASIN(1), ACOS(1), ATAN(1), SINH(1), COSH(1), TANH(1),
+	EXP(1), LOG(1), LOG10(1), SQRT(1), CBRT(1), ABS(1), FLOOR(1), CEIL(1),
+	POW(2), ATAN2(2), HYPOT(2), MIN(2), MAX(2);
+	
+	private final int arguments;
+	
+	/**
+	 * 
+	 * @param arguments The number of arguments of the function
+	 */
+	private Builtin(int arguments){
+		this.arguments = arguments;
+	}
+	
+	/**
+	 * 
+	 * @return The number of arguments of the function
+	 */
+	int getArguments() { return arguments; }
+	
+	/**
+	 * 
+	 * @return The name of the function in the expressions and in java.lang.Math
+	 */
+	String getName() { return name().toLowerCase(Locale.ENGLISH); }
+	
+	/**
+	 * 
+	 * @return The descriptor of the method of java.lang.Math
+	 */
+	String getDescriptor() { return arguments==1?"(D)D":"(DD)D"; }
+	
+	/**
+	 * 
+	 * @param a The first argument
+	 * @param b The second argument, ignored by the functions of one argument
+	 * @return The function applied to the arguments
+	 */
+	double apply(double a, double b){
+		switch(this){
+			case SIN: return Math.sin(a);
+			case COS: return Math.cos(a);
+			case TAN: return Math.tan(a);
+			case ASIN: return Math.asin(a);
+			case ACOS: return Math.acos(a);
+			case ATAN: return Math.atan(a);
+			case SINH: return Math.sinh(a);
+			case COSH: return Math.cosh(a);
+			case TANH: return Math.tanh(a);
+			case EXP: return Math.exp(a);
+			case LOG: return Math.log(a);
+			case LOG10: return Math.log10(a);
+			case SQRT: return Math.sqrt(a);
+			case CBRT: return Math.cbrt(a);
+			case ABS: return Math.abs(a);
+			case FLOOR: return Math.floor(a);
+			case CEIL: return Math.ceil(a);
+			case POW: return Math.pow(a, b);
+			case ATAN2: return Math.atan2(a, b);
+			case HYPOT: return Math.hypot(a, b);
+			case MIN: return Math.min(a, b);
+			default: return Math.max(a, b);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param name A name in an expression
+	 * @return The function of the name, null if there is none
+	 */
+	static Builtin valueOfName(String name){
+		for(Builtin builtin : values())
+			if(builtin.getName().equals(name)) return builtin;
+		return null;
+	}
+	
+}
@@ -0,0 +1,352 @@
+package mgraphic.expression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles the tree of an expression to a class that extends Evaluator.
+ * The class has a static method calculate(double) with the instructions of the tree, which the methods evaluate call,
+ * so the virtual machine compiles and inlines it as it would a method written by hand.
+ * The class file is of version 49 so that no stack map frames need to be written, and each class is defined by its own
+ * class loader so that it is unloaded with its expression.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+class Compiler {
+	
+	static final int DUP2 = 0x5c;
+	static final int DADD = 0x63;
+	static final int DSUB = 0x67;
+	static final int DMUL = 0x6b;
+	static final int DDIV = 0x6f;
+	static final int DNEG = 0x77;
+	
+	private static final int DCONST_0 = 0x0e;
+	private static final int DCONST_1 = 0x0f;
+	private static final int LDC2_W = 0x14;
+	private static final int DLOAD_0 = 0x26;
+	private static final int DLOAD_1 = 0x27;
+	private static final int ALOAD_0 = 0x2a;
+	private static final int ALOAD_1 = 0x2b;
+	private static final int ALOAD_2 = 0x2c;
+	private static final int ILOAD = 0x15;
+	private static final int ILOAD_3 = 0x1d;
+	private static final int ISTORE = 0x36;
+	private static final int DALOAD = 0x31;
+	private static final int DASTORE = 0x52;
+	private static final int IINC = 0x84;
+	private static final int IF_ICMPGE = 0xa2;
+	private static final int GOTO = 0xa7;
+	private static final int DRETURN = 0xaf;
+	private static final int RETURN = 0xb1;
+	private static final int INVOKESTATIC = 0xb8;
+	private static final int INVOKESPECIAL = 0xb7;
+	
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+	
+	private static final String SUPER = "mgraphic/expression/Evaluator";
+	private static final AtomicInteger CLASSES = new AtomicInteger();
+	
+	private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+	private final DataOutputStream poolOut = new DataOutputStream(pool);
+	private final Map<String, Integer> constants = new HashMap<String, Integer>();
+	private int poolSize = 1;
+	
+	private ByteArrayOutputStream code;
+	private DataOutputStream codeOut;
+	
+	/**
+	 * 
+	 * @param tree The tree of an expression, folded
+	 * @return The evaluator of the expression
+	 */
+	static Evaluator compile(Node tree){
+		
+		String name = "mgraphic/expression/Evaluator$"+CLASSES.incrementAndGet();
+		
+		try {
+			byte[] bytes = new Compiler().write(name, tree);
+			Class<?> type = new Loader().define(name.replace('/', '.'), bytes);
+			return (Evaluator) type.getDeclaredConstructor().newInstance();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} catch (InstantiationException e) {
+			throw new IllegalStateException(e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @param name The internal name of the class
+	 * @param tree The tree of the expression
+	 * @return The class file
+	 * @throws IOException Not thrown, the class is written to memory
+	 */
+	private byte[] write(String name, Node tree) throws IOException{
+		
+		int thisClass = type(name), superClass = type(SUPER);
+		ByteArrayOutputStream methods = new ByteArrayOutputStream();
+		DataOutputStream methodsOut = new DataOutputStream(methods);
+		
+		//The constructor
+		begin();
+		codeOut.writeByte(ALOAD_0);
+		codeOut.writeByte(INVOKESPECIAL);
+		codeOut.writeShort(method(SUPER, "<init>", "()V"));
+		codeOut.writeByte(RETURN);
+		end(methodsOut, ACC_PUBLIC, "<init>", "()V", 1, 1);
+		
+		//The expression
+		begin();
+		tree.compile(this);
+		codeOut.writeByte(DRETURN);
+		end(methodsOut, ACC_PUBLIC|ACC_STATIC, "calculate", "(D)D", tree.depth(), 2);
+		
+		int calculate = method(name, "calculate", "(D)D");
+		
+		begin();
+		codeOut.writeByte(DLOAD_1);
+		codeOut.writeByte(INVOKESTATIC);
+		codeOut.writeShort(calculate);
+		codeOut.writeByte(DRETURN);
+		end(methodsOut, ACC_PUBLIC, "evaluate", "(D)D", 2, 3);
+		
+		//for(int i=from; i<to; i++) out[i] = calculate(xs[i]);
+		begin();
+		codeOut.writeByte(ILOAD_3);
+		codeOut.writeByte(ISTORE); codeOut.writeByte(5);
+		codeOut.writeByte(ILOAD); codeOut.writeByte(5);
+		codeOut.writeByte(ILOAD); codeOut.writeByte(4);
+		codeOut.writeByte(IF_ICMPGE); codeOut.writeShort(20);
+		codeOut.writeByte(ALOAD_2);
+		codeOut.writeByte(ILOAD); codeOut.writeByte(5);
+		codeOut.writeByte(ALOAD_1);
+		codeOut.writeByte(ILOAD); codeOut.writeByte(5);
+		codeOut.writeByte(DALOAD);
+		codeOut.writeByte(INVOKESTATIC); codeOut.writeShort(calculate);
+		codeOut.writeByte(DASTORE);
+		codeOut.writeByte(IINC); codeOut.writeByte(5); codeOut.writeByte(1);
+		codeOut.writeByte(GOTO); codeOut.writeShort(-21);
+		codeOut.writeByte(RETURN);
+		end(methodsOut, ACC_PUBLIC, "evaluate", "([D[DII)V", 6, 6);
+		
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(file);
+		
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0);
+		out.writeShort(49);
+		out.writeShort(poolSize);
+		pool.writeTo(out);
+		out.writeShort(ACC_PUBLIC|ACC_FINAL|ACC_SUPER);
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(0);
+		out.writeShort(0);
+		out.writeShort(4);
+		methods.writeTo(out);
+		out.writeShort(0);
+		out.flush();
+		
+		return file.toByteArray();
+		
+	}
+	
+	/**
+	 * Starts the code of a method.
+	 */
+	private void begin(){
+		code = new ByteArrayOutputStream();
+		codeOut = new DataOutputStream(code);
+	}
+	
+	/**
+	 * Writes the method with the code written since begin.
+	 * 
+	 * @param out The methods of the class
+	 * @param access The access flags
+	 * @param name The method name
+	 * @param descriptor The method descriptor
+	 * @param stack The maximum number of slots of the operand stack
+	 * @param locals The number of slots of the local variables
+	 * @throws IOException Not thrown, the class is written to memory
+	 */
+	private void end(DataOutputStream out, int access, String name, String descriptor, int stack, int locals) throws IOException{
+		
+		codeOut.flush();
+		
+		out.writeShort(access);
+		out.writeShort(utf8(name));
+		out.writeShort(utf8(descriptor));
+		out.writeShort(1);
+		out.writeShort(utf8("Code"));
+		out.writeInt(12+code.size());
+		out.writeShort(stack);
+		out.writeShort(locals);
+		out.writeInt(code.size());
+		code.writeTo(out);
+		out.writeShort(0);
+		out.writeShort(0);
+		
+	}
+	
+	/**
+	 * Writes the instructions that push a number.
+	 * 
+	 * @param value The number
+	 */
+	void constant(double value){
+		try {
+			if(Double.doubleToRawLongBits(value)==0) codeOut.writeByte(DCONST_0);
+			else if(value==1) codeOut.writeByte(DCONST_1);
+			else {
+				codeOut.writeByte(LDC2_W);
+				codeOut.writeShort(number(value));
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Writes the instruction that pushes the variable.
+	 */
+	void variable(){ instruction(DLOAD_0); }
+	
+	/**
+	 * 
+	 * @param opcode The opcode of an instruction without operands
+	 */
+	void instruction(int opcode){
+		try {
+			codeOut.writeByte(opcode);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Writes the call to the method of java.lang.Math of a function, its arguments must be on the operand stack.
+	 * 
+	 * @param function The function to call
+	 */
+	void call(Builtin function){
+		try {
+			codeOut.writeByte(INVOKESTATIC);
+			codeOut.writeShort(method("java/lang/Math", function.getName(), function.getDescriptor()));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param value A string
+	 * @return The index of the string in the constant pool
+	 * @throws IOException Not thrown, the class is written to memory
+	 */
+	private int utf8(String value) throws IOException{
+		Integer index = constants.get("U"+value);
+		if(index == null){
+			poolOut.writeByte(1);
+			poolOut.writeUTF(value);
+			constants.put("U"+value, index = poolSize++);
+		}
+		return index;
+	}
+	
+	/**
+	 * 
+	 * @param name The internal name of a class
+	 * @return The index of the class in the constant pool
+	 * @throws IOException Not thrown, the class is written to memory
+	 */
+	private int type(String name) throws IOException{
+		Integer index = constants.get("C"+name);
+		if(index == null){
+			int utf8 = utf8(name);
+			poolOut.writeByte(7);
+			poolOut.writeShort(utf8);
+			constants.put("C"+name, index = poolSize++);
+		}
+		return index;
+	}
+	
+	/**
+	 * 
+	 * @param owner The internal name of the class of the method
+	 * @param name The method name
+	 * @param descriptor The method descriptor
+	 * @return The index of the method in the constant pool
+	 * @throws IOException Not thrown, the class is written to memory
+	 */
+	private int method(String owner, String name, String descriptor) throws IOException{
+		String key = "M"+owner+"."+name+descriptor;
+		Integer index = constants.get(key);
+		if(index == null){
+			int type = type(owner), nameIndex = utf8(name), descriptorIndex = utf8(descriptor);
+			poolOut.writeByte(12);
+			poolOut.writeShort(nameIndex);
+			poolOut.writeShort(descriptorIndex);
+			int nameAndType = poolSize++;
+			poolOut.writeByte(10);
+			poolOut.writeShort(type);
+			poolOut.writeShort(nameAndType);
+			constants.put(key, index = poolSize++);
+		}
+		return index;
+	}
+	
+	/**
+	 * 
+	 * @param value A number
+	 * @return The index of the number in the constant pool
+	 * @throws IOException Not thrown, the class is written to memory
+	 */
+	private int number(double value) throws IOException{
+		String key = "D"+Double.doubleToRawLongBits(value);
+		Integer index = constants.get(key);
+		if(index == null){
+			poolOut.writeByte(6);
+			poolOut.writeDouble(value);
+			constants.put(key, index = poolSize);
+			//The numbers take two entries of the constant pool
+			poolSize += 2;
+		}
+		return index;
+	}
+	
+	/**
+	 * The class loader of a compiled expression.
+	 */
+	private static class Loader extends ClassLoader {
+		
+		Loader() { super(Compiler.class.getClassLoader()); }
+		
+		/**
+		 * 
+		 * @param name The binary name of the class
+		 * @param bytes The class file
+		 * @return The class defined
+		 */
+		Class<?> define(String name, byte[] bytes){ return defineClass(name, bytes, 0, bytes.length); }
+		
+	}
+	
+}
@@ -0,0 +1,28 @@
+package mgraphic.expression;
+
+/**
+ * The compiled form of an expression, extended by the class generated for each expression.
+ * The evaluators have no state, they may be used by several threads.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public abstract class Evaluator {
+	
+	/**
+	 * 
+	 * @param x The value of the variable
+	 * @return The expression evaluated
+	 */
+	public abstract double evaluate(double x);
+	
+	/**
+	 * 
+	 * @param xs The values of the variable
+	 * @param out The array to where the expression is evaluated, at the same positions of the values
+	 * @param from The index of the first value
+	 * @param to The index after the last value
+	 */
+	public abstract void evaluate(double[] xs, double[] out, int from, int to);
+	
+}
@@ -0,0 +1,75 @@
+package mgraphic.expression;
+
+/**
+ * An expression of the variable x, e.g. x*exp(-2*x).
+ * The expressions are made of numbers, x, the constants pi and e, the operators + - * / ^, parentheses and calls to
+ * sin, cos, tan, asin, acos, atan, sinh, cosh, tanh, exp, log, log10, sqrt, cbrt, abs, floor, ceil, pow, atan2, hypot,
+ * min and max, which are those of java.lang.Math.
+ * The expression is parsed once to a tree, the parts that do not depend on x are replaced by their value and the tree
+ * is compiled to a class, so the expression is evaluated about as fast as the same expression written in java.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public final class Expression {
+	
+	private final String source;
+	private final Node tree;
+	private final Evaluator evaluator;
+	
+	/**
+	 * 
+	 * @param source The expression
+	 * @param tree The tree of the expression, folded
+	 */
+	private Expression(String source, Node tree) {
+		this.source = source;
+		this.tree = tree;
+		this.evaluator = Compiler.compile(tree);
+	}
+	
+	/**
+	 * 
+	 * @param source The expression
+	 * @return The expression parsed and compiled
+	 * @throws IllegalArgumentException If the expression is not valid, the message tells the position of the error
+	 */
+	public static Expression parse(String source){
+		return new Expression(source, Parser.parse(source).fold());
+	}
+	
+	/**
+	 * 
+	 * @param x The value of the variable
+	 * @return The expression evaluated
+	 */
+	public double evaluate(double x) { return evaluator.evaluate(x); }
+	
+	/**
+	 * 
+	 * @param xs The values of the variable
+	 * @param out The array to where the expression is evaluated, at the same positions of the values
+	 * @param from The index of the first value
+	 * @param to The index after the last value
+	 */
+	public void evaluate(double[] xs, double[] out, int from, int to) { evaluator.evaluate(xs, out, from, to); }
+	
+	/**
+	 * Evaluates the expression walking its tree instead of calling the compiled code, this is much slower and
+	 * is only meant to compare against.
+	 * 
+	 * @param x The value of the variable
+	 * @return The expression evaluated
+	 */
+	public double interpret(double x) { return tree.interpret(x); }
+	
+	/**
+	 * 
+	 * @return The compiled expression
+	 */
+	public Evaluator getEvaluator() { return evaluator; }
+	
+	@Override
+	public String toString() { return source; }
+	
+}
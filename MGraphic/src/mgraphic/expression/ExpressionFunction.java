@@ -0,0 +1,85 @@
+package mgraphic.expression;
+
+import java.awt.Color;
+
+import mgraphic.MGraphicFunctionPlot.MathFunction;
+import mgraphic.MGraphicFunctionPlot.Precision;
+
+/**
+ * A mathematical function given by an expression of x, e.g. x*exp(-2*x), so that it can be read from a text.
+ * The expression is compiled once, the function is named by its expression and it is thread safe.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ * @see Expression
+ */
+public class ExpressionFunction extends MathFunction {
+	
+	private final Expression expression;
+	
+	/**
+	 * 
+	 * @param expression The expression of x
+	 * @param xMin Minimum abcises 10^xMax if bode xMax if linear
+	 * @param xMax Maximum abcises 10^xMax if bode xMax if linear
+	 * @param yMin Minimum ordinate
+	 * @param yMax Maximum ordinate
+	 * @param color Color which is going to be used to plot the function if null black
+	 * @param precision The precision that will be used whene plotting the graphic
+	 * @param bode True if the graphic is an bode false if linear
+	 * @throws IllegalArgumentException If the expression is not valid, the message tells the position of the error
+	 */
+	public ExpressionFunction(String expression, double xMin, double xMax, double yMin, double yMax, Color color,
+			Precision precision, boolean bode) {
+		this(Expression.parse(expression), xMin, xMax, yMin, yMax, color, precision, bode);
+	}
+	
+	/**
+	 * 
+	 * @param expression The expression of x
+	 * @param xMin Minimum abcises 10^xMax if bode xMax if linear
+	 * @param xMax Maximum abcises 10^xMax if bode xMax if linear
+	 * @param yMin Minimum ordinate
+	 * @param yMax Maximum ordinate
+	 * @param color Color which is going to be used to plot the function if null black
+	 * @param precision The precision that will be used whene plotting the graphic
+	 * @param bode True if the graphic is an bode false if linear
+	 */
+	public ExpressionFunction(Expression expression, double xMin, double xMax, double yMin, double yMax, Color color,
+			Precision precision, boolean bode) {
+		super(xMin, xMax, yMin, yMax, color, precision, bode);
+		if(expression == null) throw new IllegalArgumentException();
+		this.expression = expression;
+	}
+	
+	/**
+	 * 
+	 * @return The expression of the function
+	 */
+	public Expression getExpression() { return expression; }
+	
+	@Override
+	public double calculateFunction(double... parameters) {
+		if(parameters.length!=1) throw new IllegalArgumentException();
+		return expression.evaluate(parameters[0]);
+	}
+	
+	@Override
+	public double calculate(double x) { return expression.evaluate(x); }
+	
+	@Override
+	public void evaluate(double[] xs, double[] out, int from, int to) { expression.evaluate(xs, out, from, to); }
+	
+	@Override
+	public boolean isThreadSafe() { return true; }
+	
+	/**
+	 * The functions of the same expression calculate the same values, so they share their samples in a sample cache.
+	 */
+	@Override
+	public Object getCacheKey() { return ExpressionFunction.class.getName()+":"+expression; }
+	
+	@Override
+	public String toString() { return expression.toString(); }
+	
+}
@@ -0,0 +1,323 @@
+package mgraphic.expression;
+
+/**
+ * A node of the tree of an expression of the variable x.
+ * The tree can be interpreted, walking it for each value of x, or compiled to the code of a method.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+abstract class Node {
+	
+	/**
+	 * 
+	 * @param x The value of the variable
+	 * @return The node evaluated walking its subtree
+	 */
+	abstract double interpret(double x);
+	
+	/**
+	 * 
+	 * @return The node with the subtrees that do not depend on the variable replaced by their value
+	 */
+	abstract Node fold();
+	
+	/**
+	 * 
+	 * @return The number of slots of the operand stack needed to compute the node
+	 */
+	abstract int depth();
+	
+	/**
+	 * Writes the instructions that leave the value of the node on the operand stack, the variable is the local 0.
+	 * 
+	 * @param compiler The compiler of the method
+	 */
+	abstract void compile(Compiler compiler);
+	
+	/**
+	 * 
+	 * @return True if the node does not depend on the variable
+	 */
+	boolean isConstant() { return false; }
+	
+	/**
+	 * A number.
+	 */
+	static class Constant extends Node {
+		
+		private final double value;
+		
+		/**
+		 * 
+		 * @param value The number
+		 */
+		Constant(double value) { this.value = value; }
+		
+		/**
+		 * 
+		 * @return The number
+		 */
+		double getValue() { return value; }
+		
+		@Override
+		double interpret(double x) { return value; }
+		
+		@Override
+		Node fold() { return this; }
+		
+		@Override
+		int depth() { return 2; }
+		
+		@Override
+		void compile(Compiler compiler) { compiler.constant(value); }
+		
+		@Override
+		boolean isConstant() { return true; }
+		
+	}
+	
+	/**
+	 * The variable x.
+	 */
+	static class Variable extends Node {
+		
+		@Override
+		double interpret(double x) { return x; }
+		
+		@Override
+		Node fold() { return this; }
+		
+		@Override
+		int depth() { return 2; }
+		
+		@Override
+		void compile(Compiler compiler) { compiler.variable(); }
+		
+	}
+	
+	/**
+	 * The opposite of a node.
+	 */
+	static class Negate extends Node {
+		
+		private final Node operand;
+		
+		/**
+		 * 
+		 * @param operand The node to negate
+		 */
+		Negate(Node operand) { this.operand = operand; }
+		
+		@Override
+		double interpret(double x) { return -operand.interpret(x); }
+		
+		@Override
+		Node fold() {
+			Node folded = operand.fold();
+			if(folded.isConstant()) return new Constant(-((Constant) folded).getValue());
+			if(folded instanceof Negate) return ((Negate) folded).operand;
+			return new Negate(folded);
+		}
+		
+		@Override
+		int depth() { return operand.depth(); }
+		
+		@Override
+		void compile(Compiler compiler) {
+			operand.compile(compiler);
+			compiler.instruction(Compiler.DNEG);
+		}
+		
+	}
+	
+	/**
+	 * An addition, a subtraction, a multiplication or a division.
+	 */
+	static class Binary extends Node {
+		
+		private final char operator;
+		private final Node left, right;
+		
+		/**
+		 * 
+		 * @param operator One of + - * /
+		 * @param left The left operand
+		 * @param right The right operand
+		 */
+		Binary(char operator, Node left, Node right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+		
+		@Override
+		double interpret(double x) {
+			double a = left.interpret(x), b = right.interpret(x);
+			switch(operator){
+				case '+': return a+b;
+				case '-': return a-b;
+				case '*': return a*b;
+				default: return a/b;
+			}
+		}
+		
+		@Override
+		Node fold() {
+			
+			Node a = left.fold(), b = right.fold();
+			Binary folded = new Binary(operator, a, b);
+			
+			if(a.isConstant() && b.isConstant()) return new Constant(folded.interpret(0));
+			
+			//Only the identities that keep the result exact, x+0 is not x when x is -0
+			if(b.isConstant() && ((Constant) b).getValue()==1 && (operator=='*' || operator=='/')) return a;
+			if(a.isConstant() && ((Constant) a).getValue()==1 && operator=='*') return b;
+			
+			return folded;
+			
+		}
+		
+		@Override
+		int depth() { return Math.max(left.depth(), 2+right.depth()); }
+		
+		@Override
+		void compile(Compiler compiler) {
+			left.compile(compiler);
+			right.compile(compiler);
+			switch(operator){
+				case '+': compiler.instruction(Compiler.DADD); break;
+				case '-': compiler.instruction(Compiler.DSUB); break;
+				case '*': compiler.instruction(Compiler.DMUL); break;
+				default: compiler.instruction(Compiler.DDIV);
+			}
+		}
+		
+	}
+	
+	/**
+	 * A power, the squares and the cubes are computed by multiplications.
+	 */
+	static class Power extends Node {
+		
+		private final Node base, exponent;
+		/**
+		 * The exponent when it is 2 or 3, 0 otherwise.
+		 */
+		private final int multiplications;
+		
+		/**
+		 * 
+		 * @param base The base
+		 * @param exponent The exponent
+		 */
+		Power(Node base, Node exponent) {
+			this.base = base;
+			this.exponent = exponent;
+			double value = exponent.isConstant()?((Constant) exponent).getValue():0;
+			this.multiplications = value==2 || value==3?(int) value:0;
+		}
+		
+		@Override
+		double interpret(double x) {
+			double b = base.interpret(x);
+			switch(multiplications){
+				case 2: return b*b;
+				case 3: return b*b*b;
+				default: return Math.pow(b, exponent.interpret(x));
+			}
+		}
+		
+		@Override
+		Node fold() {
+			Power folded = new Power(base.fold(), exponent.fold());
+			if(folded.base.isConstant() && folded.exponent.isConstant()) return new Constant(folded.interpret(0));
+			if(folded.exponent.isConstant() && ((Constant) folded.exponent).getValue()==1) return folded.base;
+			return folded;
+		}
+		
+		@Override
+		int depth() { return Math.max(base.depth(), multiplications>0?2*multiplications:2+exponent.depth()); }
+		
+		@Override
+		void compile(Compiler compiler) {
+			base.compile(compiler);
+			switch(multiplications){
+				case 2:
+					compiler.instruction(Compiler.DUP2);
+					compiler.instruction(Compiler.DMUL);
+					break;
+				case 3:
+					compiler.instruction(Compiler.DUP2);
+					compiler.instruction(Compiler.DUP2);
+					compiler.instruction(Compiler.DMUL);
+					compiler.instruction(Compiler.DMUL);
+					break;
+				default:
+					exponent.compile(compiler);
+					compiler.call(Builtin.POW);
+			}
+		}
+		
+	}
+	
+	/**
+	 * A call to a function.
+	 */
+	static class Call extends Node {
+		
+		private final Builtin function;
+		private final Node[] arguments;
+		
+		/**
+		 * 
+		 * @param function The function called
+		 * @param arguments The arguments, as many as the function takes
+		 */
+		Call(Builtin function, Node... arguments) {
+			this.function = function;
+			this.arguments = arguments;
+		}
+		
+		@Override
+		double interpret(double x) {
+			return function.apply(arguments[0].interpret(x), arguments.length>1?arguments[1].interpret(x):0);
+		}
+		
+		@Override
+		Node fold() {
+			
+			Node[] folded = new Node[arguments.length];
+			boolean constant = true;
+			
+			for(int i=0; i<arguments.length; i++){
+				folded[i] = arguments[i].fold();
+				constant &= folded[i].isConstant();
+			}
+			
+			if(function == Builtin.POW) return new Power(folded[0], folded[1]).fold();
+			
+			Call call = new Call(function, folded);
+			
+			return constant?new Constant(call.interpret(0)):call;
+			
+		}
+		
+		@Override
+		int depth() {
+			int depth = 0;
+			for(int i=0; i<arguments.length; i++)
+				depth = Math.max(depth, 2*i+arguments[i].depth());
+			return depth;
+		}
+		
+		@Override
+		void compile(Compiler compiler) {
+			for(Node argument : arguments)
+				argument.compile(compiler);
+			compiler.call(function);
+		}
+		
+	}
+	
+}
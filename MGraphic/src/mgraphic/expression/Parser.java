@@ -0,0 +1,241 @@
+package mgraphic.expression;
+
+/**
+ * Parses an expression of the variable x to its tree, by recursive descent.
+ * The expressions are made of numbers, x, the constants pi and e, the operators + - * / ^, parentheses and the calls to
+ * the functions of Builtin. The ^ is right associative and binds tighter than the unary minus, so -x^2 is -(x^2).
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+class Parser {
+	
+	private final String source;
+	private int position;
+	
+	/**
+	 * 
+	 * @param source The expression
+	 */
+	private Parser(String source) {
+		this.source = source;
+	}
+	
+	/**
+	 * 
+	 * @param source The expression
+	 * @return The tree of the expression, not folded
+	 * @throws IllegalArgumentException If the expression is not valid, the message tells the position of the error
+	 */
+	static Node parse(String source){
+		
+		if(source == null) throw new IllegalArgumentException();
+		
+		Parser parser = new Parser(source);
+		Node node = parser.sum();
+		
+		parser.skipSpaces();
+		if(parser.position<source.length()) throw parser.error("Unexpected '"+source.charAt(parser.position)+"'");
+		
+		return node;
+		
+	}
+	
+	/**
+	 * 
+	 * @return A sum or a subtraction of products
+	 */
+	private Node sum(){
+		
+		Node node = product();
+		
+		for(char operator = peek(); operator=='+' || operator=='-'; operator = peek()){
+			position++;
+			node = new Node.Binary(operator, node, product());
+		}
+		
+		return node;
+		
+	}
+	
+	/**
+	 * 
+	 * @return A product or a division of unary expressions
+	 */
+	private Node product(){
+		
+		Node node = unary();
+		
+		for(char operator = peek(); operator=='*' || operator=='/'; operator = peek()){
+			position++;
+			node = new Node.Binary(operator, node, unary());
+		}
+		
+		return node;
+		
+	}
+	
+	/**
+	 * 
+	 * @return A power preceded by any number of signs
+	 */
+	private Node unary(){
+		
+		char sign = peek();
+		
+		if(sign=='-'){
+			position++;
+			return new Node.Negate(unary());
+		}
+		if(sign=='+'){
+			position++;
+			return unary();
+		}
+		
+		return power();
+		
+	}
+	
+	/**
+	 * 
+	 * @return A primary expression raised to an unary expression, if followed by ^
+	 */
+	private Node power(){
+		
+		Node base = primary();
+		
+		if(peek()=='^'){
+			position++;
+			return new Node.Power(base, unary());
+		}
+		
+		return base;
+		
+	}
+	
+	/**
+	 * 
+	 * @return A number, x, a constant, a call or an expression between parentheses
+	 */
+	private Node primary(){
+		
+		char c = peek();
+		
+		if(c=='('){
+			position++;
+			Node node = sum();
+			expect(')');
+			return node;
+		}
+		
+		if(Character.isDigit(c) || c=='.') return number();
+		
+		if(Character.isLetter(c)) return name();
+		
+		throw error(position<source.length()?"Unexpected '"+c+"'":"Unexpected end");
+		
+	}
+	
+	/**
+	 * 
+	 * @return The number at the position
+	 */
+	private Node number(){
+		
+		int start = position;
+		
+		while(position<source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position)=='.'))
+			position++;
+		
+		//The exponent is only read if digits follow, so that 2e is not taken for a number
+		if(position<source.length() && (source.charAt(position)=='e' || source.charAt(position)=='E')){
+			int exponent = position+1;
+			if(exponent<source.length() && (source.charAt(exponent)=='+' || source.charAt(exponent)=='-')) exponent++;
+			if(exponent<source.length() && Character.isDigit(source.charAt(exponent))){
+				position = exponent;
+				while(position<source.length() && Character.isDigit(source.charAt(position)))
+					position++;
+			}
+		}
+		
+		try {
+			return new Node.Constant(Double.parseDouble(source.substring(start, position)));
+		} catch (NumberFormatException e) {
+			position = start;
+			throw error("Invalid number");
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @return The variable, the constant or the call named at the position
+	 */
+	private Node name(){
+		
+		int start = position;
+		
+		while(position<source.length() && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position)=='_'))
+			position++;
+		
+		String name = source.substring(start, position);
+		
+		if(name.equals("x")) return new Node.Variable();
+		if(name.equals("pi")) return new Node.Constant(Math.PI);
+		if(name.equals("e")) return new Node.Constant(Math.E);
+		
+		Builtin function = Builtin.valueOfName(name);
+		
+		if(function == null){
+			position = start;
+			throw error("Unknown name "+name);
+		}
+		
+		expect('(');
+		Node[] arguments = new Node[function.getArguments()];
+		for(int i=0; i<arguments.length; i++){
+			if(i>0) expect(',');
+			arguments[i] = sum();
+		}
+		expect(')');
+		
+		return new Node.Call(function, arguments);
+		
+	}
+	
+	/**
+	 * 
+	 * @return The next character that is not a space, 0 at the end of the expression
+	 */
+	private char peek(){
+		skipSpaces();
+		return position<source.length()?source.charAt(position):0;
+	}
+	
+	/**
+	 * Moves the position past the spaces.
+	 */
+	private void skipSpaces(){
+		while(position<source.length() && Character.isWhitespace(source.charAt(position)))
+			position++;
+	}
+	
+	/**
+	 * 
+	 * @param c The character that must be next
+	 */
+	private void expect(char c){
+		if(peek()!=c) throw error("Expected '"+c+"'");
+		position++;
+	}
+	
+	/**
+	 * 
+	 * @param message The error
+	 * @return The exception telling the error and its position
+	 */
+	private IllegalArgumentException error(String message){
+		return new IllegalArgumentException(message+" at "+position+" in "+source);
+	}
+	
+}
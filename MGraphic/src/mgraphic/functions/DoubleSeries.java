@@ -0,0 +1,40 @@
+package mgraphic.functions;
+
+/**
+ * A series that keeps its coordinates as double.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class DoubleSeries extends Series {
+	
+	private final double[] xs;
+	private final double[] ys;
+	
+	/**
+	 * 
+	 * @param xs The abcises, the array is kept by the series
+	 * @param ys The ordinates, the array is kept by the series
+	 */
+	public DoubleSeries(double[] xs, double[] ys) {
+		if(xs == null || ys == null || xs.length != ys.length) throw new IllegalArgumentException();
+		this.xs = xs;
+		this.ys = ys;
+	}
+	
+	@Override
+	public int size() { return xs.length; }
+	
+	@Override
+	public double getX(int index) { return xs[index]; }
+	
+	@Override
+	public double getY(int index) { return ys[index]; }
+	
+	@Override
+	public void getXs(int from, int to, double[] dest, int offset) { System.arraycopy(xs, from, dest, offset, to-from); }
+	
+	@Override
+	public void getYs(int from, int to, double[] dest, int offset) { System.arraycopy(ys, from, dest, offset, to-from); }
+	
+}
@@ -0,0 +1,61 @@
+package mgraphic.functions;
+
+/**
+ * A series that keeps its coordinates as float, taking half of the memory of a DoubleSeries.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class FloatSeries extends Series {
+	
+	private final float[] xs;
+	private final float[] ys;
+	
+	/**
+	 * 
+	 * @param xs The abcises, the array is kept by the series
+	 * @param ys The ordinates, the array is kept by the series
+	 */
+	public FloatSeries(float[] xs, float[] ys) {
+		if(xs == null || ys == null || xs.length != ys.length) throw new IllegalArgumentException();
+		this.xs = xs;
+		this.ys = ys;
+	}
+	
+	/**
+	 * 
+	 * @param xs The abcises, they will be rounded to float
+	 * @param ys The ordinates, they will be rounded to float
+	 */
+	public FloatSeries(double[] xs, double[] ys) {
+		if(xs == null || ys == null || xs.length != ys.length) throw new IllegalArgumentException();
+		this.xs = new float[xs.length];
+		this.ys = new float[ys.length];
+		for(int i=0; i<xs.length; i++){
+			this.xs[i] = (float) xs[i];
+			this.ys[i] = (float) ys[i];
+		}
+	}
+	
+	@Override
+	public int size() { return xs.length; }
+	
+	@Override
+	public double getX(int index) { return xs[index]; }
+	
+	@Override
+	public double getY(int index) { return ys[index]; }
+	
+	@Override
+	public void getXs(int from, int to, double[] dest, int offset) {
+		for(int i=from; i<to; i++)
+			dest[offset++] = xs[i];
+	}
+	
+	@Override
+	public void getYs(int from, int to, double[] dest, int offset) {
+		for(int i=from; i<to; i++)
+			dest[offset++] = ys[i];
+	}
+	
+}
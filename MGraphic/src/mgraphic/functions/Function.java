@@ -4,7 +4,10 @@ import java.awt.Color;
 import java.awt.geom.Point2D;
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import mgraphic.io.SimFile;
 /**
  * 
  * @author Rafael Campos
@@ -12,7 +15,32 @@ import java.io.PrintWriter;
  */
 public class Function{
 	
-	private Point2D[] points;
+	private Series series;
+	/**
+	 * The compatibility view of the series, only built if requested.
+	 */
+	private volatile Point2D[] points;
+	/**
+	 * The levels of detail built so far, the level 0 is the series itself.
+	 */
+	private List<Series> levels;
+	/**
+	 * The logarithm of the abcises of each level of detail, computed by chunks as they are needed.
+	 */
+	private List<double[][]> logarithms;
+	/**
+	 * The last positions in pixels computed for the function.
+	 */
+	private volatile Projection projection;
+	
+	/**
+	 * The number of logarithms computed together.
+	 */
+	private static final int LOGARITHM_CHUNK = 1<<16;
+	/**
+	 * The maximum number of points of the levels of detail kept of a series that is not in the heap.
+	 */
+	private static final int MAPPED_LEVEL_POINTS = 1<<20;
 	private Color color;
 	private String name;
 	
@@ -23,8 +51,21 @@ public class Function{
 	 * @param color The function color null will generate a random color
 	 */
 	public Function(Point2D[] points, String name, Color color) {
-		if(points == null || name == null) throw new IllegalArgumentException();
-		this.points = points;
+		this(points==null?null:Series.valueOf(points, false), name, color);
+	}
+	
+	/**
+	 * 
+	 * @param series The points covered by the function
+	 * @param name The function name
+	 * @param color The function color null will generate a random color
+	 */
+	public Function(Series series, String name, Color color) {
+		if(series == null || name == null) throw new IllegalArgumentException();
+		this.series = series;
+		this.levels = new ArrayList<Series>();
+		this.levels.add(series);
+		this.logarithms = new ArrayList<double[][]>();
 		this.name = name;
 		this.color = color==null?generateColor():color;
 	}
@@ -41,7 +82,164 @@ public class Function{
 	 * 
 	 * @return Gets the points covered by the function
 	 */
-	public Point2D[] getPoints() { return points; }
+	public Series getSeries() { return series; }
+	
+	/**
+	 * Gets a reduced version of the series, each level has half of the points of the level below.
+	 * The level below is divided in groups of four points and only the minimum and the maximum of each group are kept,
+	 * so the level keeps the shape of the series between the points kept.
+	 * The levels are built the first time they are requested, all of them together take about as much memory as the series.
+	 * Mutable series have no levels of detail. The levels of a series that is not in the heap are only kept from the first 
+	 * with at most MAPPED_LEVEL_POINTS points, the levels before are the series itself.
+	 * 
+	 * @param level The level of detail, 0 is the series itself
+	 * @return The series reduced level times, or the most reduced series if there are less levels
+	 */
+	public synchronized Series getLevel(int level){
+		
+		if(level<0) throw new IllegalArgumentException();
+		if(series.isMutable()) return series;
+		
+		while(levels.size()<=level){
+			Series below = levels.get(levels.size()-1);
+			if(below.size()<=4) return below;
+			if(below.isInHeap()) 
+				levels.add(reduce(below, 4));
+			else {
+				//Reducing groups of 4^k points k times keeps the same points as reducing groups of 2^(k+1) points once
+				int group = 4<<(levels.size()-1);
+				levels.add(series.size()/group*2 > MAPPED_LEVEL_POINTS?series:reduce(series, group));
+			}
+		}
+		
+		return levels.get(level);
+		
+	}
+	
+	/**
+	 * 
+	 * @return The number of levels of detail built so far, including the series itself
+	 */
+	public synchronized int getLevelCount() { return levels.size(); }
+	
+	/**
+	 * Copies the logarithm of base 10 of abcises of a level of detail to an array.
+	 * The logarithms are computed once by chunks, the first time they are requested, and reused afterwards.
+	 * The series must not be mutable.
+	 * 
+	 * @param level The level of detail
+	 * @param from The index of the first point
+	 * @param to The index after the last point
+	 * @param dest The array to where the logarithms are copied
+	 * @param offset The position in dest of the first logarithm
+	 */
+	public void getLog10Xs(int level, int from, int to, double[] dest, int offset){
+		
+		if(series.isMutable() || !getLevel(level).isInHeap()) throw new IllegalStateException();
+		
+		for(int chunk=from/LOGARITHM_CHUNK; chunk*LOGARITHM_CHUNK<to; chunk++){
+			
+			double[] logarithm = getLogarithmChunk(level, chunk);
+			int start = Math.max(from, chunk*LOGARITHM_CHUNK), end = Math.min(to, (chunk+1)*LOGARITHM_CHUNK);
+			
+			System.arraycopy(logarithm, start-chunk*LOGARITHM_CHUNK, dest, offset+start-from, end-start);
+			
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @param level The level of detail
+	 * @param chunk The chunk index
+	 * @return The logarithm of the abcises of the chunk
+	 */
+	private synchronized double[] getLogarithmChunk(int level, int chunk){
+		
+		Series series = getLevel(level);
+		
+		while(logarithms.size()<levels.size())
+			logarithms.add(new double[(levels.get(logarithms.size()).size()+LOGARITHM_CHUNK-1)/LOGARITHM_CHUNK][]);
+		
+		double[][] chunks = logarithms.get(levels.indexOf(series));
+		
+		if(chunks[chunk] == null){
+			int start = chunk*LOGARITHM_CHUNK, end = Math.min(series.size(), start+LOGARITHM_CHUNK);
+			double[] logarithm = new double[end-start];
+			series.getXs(start, end, logarithm, 0);
+			for(int i=0; i<logarithm.length; i++)
+				logarithm[i] = Math.log10(logarithm[i]);
+			chunks[chunk] = logarithm;
+		}
+		
+		return chunks[chunk];
+		
+	}
+	
+	/**
+	 * 
+	 * @return The last positions in pixels computed for the function, null if none
+	 */
+	public Projection getProjection() { return projection; }
+	
+	/**
+	 * 
+	 * @param projection The positions in pixels to keep for the function
+	 */
+	public void setProjection(Projection projection) { this.projection = projection; }
+	
+	/**
+	 * 
+	 * @param below The series to reduce
+	 * @param size The number of points of each group
+	 * @return The minimum and the maximum of each group of points of below, in their order
+	 */
+	private static Series reduce(Series below, int size){
+		
+		SeriesBuilder reduced = new SeriesBuilder(below.size()/size*2+2);
+		
+		for(int group=0, end; group<below.size(); group=end){
+			
+			end = (int) Math.min((long) group+size, below.size());
+			int min = group, max = group;
+			double minY = below.getY(group), maxY = minY;
+			
+			for(int i=group+1; i<end; i++){
+				double y = below.getY(i);
+				if(y<minY){ min = i; minY = y; }
+				if(y>maxY){ max = i; maxY = y; }
+			}
+			
+			int first = Math.min(min, max), second = Math.max(min, max);
+			reduced.add(below.getX(first), below.getY(first));
+			if(second != first) reduced.add(below.getX(second), below.getY(second));
+			
+		}
+		
+		return reduced.toSeries(below instanceof FloatSeries);
+		
+	}
+	
+	/**
+	 * The points are built from the series the first time they are requested, 
+	 * getSeries should be preferred as it does not allocate an object by point.
+	 * 
+	 * @return Gets the points covered by the function
+	 */
+	public Point2D[] getPoints() {
+		
+		Point2D[] view = points;
+		
+		if(view == null){
+			view = new Point2D[series.size()];
+			for(int i=0; i<view.length; i++)
+				view[i] = new Point2D.Double(series.getX(i), series.getY(i));
+			points = view;
+		}
+		
+		return view;
+		
+	}
 	
 	/**
 	 * 
@@ -62,8 +260,8 @@ public class Function{
 		buffer.append("Name:\n"+name);
 		buffer.append("\nColor:\nr"+color.getRed()+"g"+color.getGreen()+"b"+color.getBlue());
 		buffer.append("\nPoints:");
-		for(Point2D point : points)
-			buffer.append("\n"+point.toString());
+		for(int i=0; i<series.size(); i++)
+			buffer.append("\nPoint2D.Double[").append(series.getX(i)).append(", ").append(series.getY(i)).append(']');
 		
 		return buffer.toString();
 		
@@ -76,17 +274,29 @@ public class Function{
 	 * 
 	 * @param fileName The fileName to which the function will be saved
 	 * @throws IOException Covers file not found, file in use by another process...
+	 * @see SimFile
 	 */
 	public void appendToFile(String fileName) throws IOException{
 		
 		if(fileName==null) throw new IllegalArgumentException();
 		
-		File file = new File(fileName+".sim");
-		if(!file.exists())
-			file.createNewFile();
-		PrintWriter writer = new PrintWriter(file);
-		writer.append(this.toString());
-		writer.close();
+		SimFile.append(new File(fileName+SimFile.EXTENSION), this);
+		
+	}
+	
+	/**
+	 * Reads the functions saved to the file fileName.sim.
+	 * 
+	 * @param fileName The fileName to which the functions were saved
+	 * @return The functions in the order they were saved
+	 * @throws IOException Covers file not found, file in use by another process...
+	 * @see SimFile
+	 */
+	public static Function[] readAllFromFile(String fileName) throws IOException{
+		
+		if(fileName==null) throw new IllegalArgumentException();
+		
+		return SimFile.readAll(new File(fileName+SimFile.EXTENSION));
 		
 	}
 	
@@ -0,0 +1,95 @@
+package mgraphic.functions;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A series whose columns are little-endian doubles of a file mapped in memory, the coordinates are read from the
+ * pages of the file when used and are not copied to the heap.
+ * The file must not be changed while the series is in use.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class MappedSeries extends Series {
+	
+	/**
+	 * The number of coordinates by mapping, a mapping can not exceed 2 GB.
+	 */
+	private static final int CHUNK_SHIFT = 27;
+	private static final int CHUNK = 1<<CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK-1;
+	
+	private final int size;
+	private final DoubleBuffer[] xs;
+	private final DoubleBuffer[] ys;
+	
+	/**
+	 * The mappings are kept after the channel is closed.
+	 * 
+	 * @param channel The channel of the file
+	 * @param xPosition The position in the file of the first abcises
+	 * @param yPosition The position in the file of the first ordinate
+	 * @param size The number of points
+	 * @throws IOException If the file can not be mapped
+	 */
+	public MappedSeries(FileChannel channel, long xPosition, long yPosition, int size) throws IOException {
+		if(channel == null || size < 0) throw new IllegalArgumentException();
+		this.size = size;
+		this.xs = map(channel, xPosition, size);
+		this.ys = map(channel, yPosition, size);
+	}
+	
+	private static DoubleBuffer[] map(FileChannel channel, long position, int size) throws IOException {
+		DoubleBuffer[] chunks = new DoubleBuffer[(int) (((long) size+CHUNK-1)>>CHUNK_SHIFT)];
+		for(int i=0; i<chunks.length; i++){
+			long length = Math.min(CHUNK, size-((long) i<<CHUNK_SHIFT));
+			chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position+((long) i<<CHUNK_SHIFT)*8, length*8)
+					.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		}
+		return chunks;
+	}
+	
+	@Override
+	public int size() { return size; }
+	
+	@Override
+	public double getX(int index) { 
+		if(index<0 || index>=size) throw new IndexOutOfBoundsException(); 
+		return xs[index>>>CHUNK_SHIFT].get(index&CHUNK_MASK); 
+	}
+	
+	@Override
+	public double getY(int index) { 
+		if(index<0 || index>=size) throw new IndexOutOfBoundsException(); 
+		return ys[index>>>CHUNK_SHIFT].get(index&CHUNK_MASK); 
+	}
+	
+	@Override
+	public boolean isInHeap() { return false; }
+	
+	@Override
+	public void getXs(int from, int to, double[] dest, int offset) { copy(xs, from, to, dest, offset); }
+	
+	@Override
+	public void getYs(int from, int to, double[] dest, int offset) { copy(ys, from, to, dest, offset); }
+	
+	/**
+	 * Bulk copy, the buffers are duplicated so that the series can be read by several threads.
+	 */
+	private void copy(DoubleBuffer[] chunks, int from, int to, double[] dest, int offset){
+		if(from<0 || to>size || from>to) throw new IndexOutOfBoundsException();
+		while(from<to){
+			int index = from&CHUNK_MASK;
+			int length = Math.min(to-from, CHUNK-index);
+			DoubleBuffer chunk = chunks[from>>>CHUNK_SHIFT].duplicate();
+			chunk.position(index);
+			chunk.get(dest, offset, length);
+			from += length;
+			offset += length;
+		}
+	}
+	
+}
@@ -0,0 +1,79 @@
+package mgraphic.functions;
+
+/**
+ * The positions in pixels of a range of points of a function, 
+ * tagged with the view and the size of the graphic they were computed for.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class Projection {
+	
+	private final int level;
+	private final int from;
+	private final int to;
+	private final double xMin;
+	private final double xMax;
+	private final double yMin;
+	private final double yMax;
+	private final boolean bode;
+	private final int width;
+	private final int height;
+	private final double[] xs;
+	private final double[] ys;
+	
+	/**
+	 * 
+	 * @param level The level of detail of the points
+	 * @param from The index of the first point
+	 * @param to The index after the last point
+	 * @param xMin The minimum abcises of the graphic
+	 * @param xMax The maximum abcises of the graphic
+	 * @param yMin The minimum ordinate of the graphic
+	 * @param yMax The maximum ordinate of the graphic
+	 * @param bode True if the graphic is a bode
+	 * @param width The graphic width
+	 * @param height The graphic height
+	 * @param xs The abcises in pixels of the points, the array is kept
+	 * @param ys The ordinates in pixels of the points, the array is kept
+	 */
+	public Projection(int level, int from, int to, double xMin, double xMax, double yMin, double yMax, boolean bode, 
+			int width, int height, double[] xs, double[] ys) {
+		if(xs == null || ys == null || xs.length<to-from || ys.length<to-from) throw new IllegalArgumentException();
+		this.level = level;
+		this.from = from;
+		this.to = to;
+		this.xMin = xMin;
+		this.xMax = xMax;
+		this.yMin = yMin;
+		this.yMax = yMax;
+		this.bode = bode;
+		this.width = width;
+		this.height = height;
+		this.xs = xs;
+		this.ys = ys;
+	}
+	
+	/**
+	 * 
+	 * @return True if the projection was computed for the same points, view and size
+	 */
+	public boolean matches(int level, int from, int to, double xMin, double xMax, double yMin, double yMax, boolean bode, 
+			int width, int height){
+		return this.level==level && this.from==from && this.to==to && this.xMin==xMin && this.xMax==xMax && 
+				this.yMin==yMin && this.yMax==yMax && this.bode==bode && this.width==width && this.height==height;
+	}
+	
+	/**
+	 * 
+	 * @return The abcises in pixels of the points, the first is the point at from
+	 */
+	public double[] getXs() { return xs; }
+	
+	/**
+	 * 
+	 * @return The ordinates in pixels of the points, the first is the point at from
+	 */
+	public double[] getYs() { return ys; }
+	
+}
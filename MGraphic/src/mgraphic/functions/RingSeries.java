@@ -0,0 +1,281 @@
+package mgraphic.functions;
+
+/**
+ * A series of fixed capacity to which points can be appended, once it is full the oldest points are overwritten.
+ * Optionally the points whose abcises are farther than a window from the last abcises are discarded.
+ * Appending points in ascending order of abcises takes time proportional to the points appended and allocates nothing.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class RingSeries extends Series {
+	
+	/**
+	 * The columns, replaced instead of rewritten when the points are merged.
+	 */
+	private volatile double[] xs, ys;
+	/**
+	 * The retention window, infinite to keep points until they are overwritten.
+	 */
+	private final double window;
+	/**
+	 * The position of the oldest point.
+	 */
+	private volatile int head;
+	private volatile int size;
+	/**
+	 * The last view taken, kept while no points are appended.
+	 */
+	private Series snapshot;
+	/**
+	 * The columns the views are taken from, the points appended are added after the ones of the last view, and the 
+	 * columns are replaced when they are full, so the points of a view taken are never rewritten.
+	 */
+	private double[] viewXs, viewYs;
+	/**
+	 * The index in the view columns after the last point of the last view, and the number of points appended since.
+	 */
+	private int viewEnd, appended;
+	/**
+	 * True if the points of the series are no longer the last points of the view columns followed by the ones appended.
+	 */
+	private boolean viewStale = true;
+	
+	/**
+	 * 
+	 * @param capacity The maximum number of points kept
+	 * @param window The maximum distance between the abcises of the oldest and the last point, 
+	 * Double.POSITIVE_INFINITY to keep the points until they are overwritten
+	 */
+	public RingSeries(int capacity, double window) {
+		if(capacity<=0 || !(window>=0)) throw new IllegalArgumentException();
+		this.xs = new double[capacity];
+		this.ys = new double[capacity];
+		this.window = window;
+	}
+	
+	/**
+	 * 
+	 * @return The maximum number of points kept
+	 */
+	public int getCapacity() { return xs.length; }
+	
+	/**
+	 * 
+	 * @return The maximum distance between the abcises of the oldest and the last point
+	 */
+	public double getWindow() { return window; }
+	
+	@Override
+	public int size() { return size; }
+	
+	@Override
+	public double getX(int index) { return xs[position(head, index)]; }
+	
+	@Override
+	public double getY(int index) { return ys[position(head, index)]; }
+	
+	@Override
+	public void getXs(int from, int to, double[] dest, int offset) { copy(xs, head, from, to, dest, offset); }
+	
+	@Override
+	public void getYs(int from, int to, double[] dest, int offset) { copy(ys, head, from, to, dest, offset); }
+	
+	@Override
+	public boolean isMutable() { return true; }
+	
+	/**
+	 * The view is a copy of the points in the series at the moment, so the appends that overwrite the oldest points
+	 * do not change it. The copy is taken once for all the views taken between two appends, and only the points 
+	 * appended since the last view are copied, to columns of twice the size that are allocated again each time about 
+	 * the size of points is appended.
+	 */
+	@Override
+	public synchronized Series snapshot() {
+		
+		if(snapshot == null){
+			
+			int copied = Math.min(appended, size);
+			
+			if(viewStale || viewEnd+copied>viewXs.length){
+				viewXs = new double[2*size+16];
+				viewYs = new double[2*size+16];
+				viewEnd = 0;
+				copied = size;
+				viewStale = false;
+			}
+			
+			copy(xs, head, size-copied, size, viewXs, viewEnd);
+			copy(ys, head, size-copied, size, viewYs, viewEnd);
+			viewEnd += copied;
+			appended = 0;
+			
+			snapshot = new View(viewXs, viewYs, viewEnd-size, size);
+			
+		}
+		
+		return snapshot;
+		
+	}
+	
+	/**
+	 * Copies a range of a column to an array in at most two copies.
+	 */
+	private void copy(double[] column, int head, int from, int to, double[] dest, int offset){
+		int start = position(head, from), length = to-from;
+		int first = Math.min(length, column.length-start);
+		System.arraycopy(column, start, dest, offset, first);
+		System.arraycopy(column, 0, dest, offset+first, length-first);
+	}
+	
+	/**
+	 * 
+	 * @param head The position of the oldest point
+	 * @param index The point index
+	 * @return The position in the columns of the point at index
+	 */
+	private int position(int head, int index){
+		int position = head+index;
+		return position>=xs.length?position-xs.length:position;
+	}
+	
+	/**
+	 * Appends points to the series.
+	 * If the points are not in ascending order of abcises, or start before the last point of the series, 
+	 * they are sorted and merged with the points in the series.
+	 * 
+	 * @param xs The abcises to append
+	 * @param ys The ordinates to append
+	 * @param offset The index of the first point to append
+	 * @param length The number of points to append
+	 */
+	public synchronized void append(double[] xs, double[] ys, int offset, int length){
+		
+		if(xs == null || ys == null || offset<0 || length<0 || offset+length>xs.length || offset+length>ys.length) 
+			throw new IllegalArgumentException();
+		if(length==0) return;
+		
+		snapshot = null;
+		
+		boolean ascending = isSorted(xs, offset, length) && (size==0 || xs[offset]>=getX(size-1));
+		
+		if(ascending){
+			
+			//Only the last capacity points appended can be kept
+			int skip = Math.max(0, length-this.xs.length);
+			int tail = position(head, size);
+			
+			for(int i=offset+skip; i<offset+length; i++){
+				this.xs[tail] = xs[i];
+				this.ys[tail] = ys[i];
+				if(++tail==this.xs.length) tail = 0;
+			}
+			
+			int total = size+length-skip;
+			int overwritten = Math.max(0, total-this.xs.length);
+			head = position(head, overwritten);
+			size = total-overwritten;
+			appended = (int) Math.min(Integer.MAX_VALUE, (long) appended+length);
+			
+		} else {
+			merge(xs, ys, offset, length);
+			viewStale = true;
+		}
+		
+		retain();
+		
+	}
+	
+	/**
+	 * Sorts the points to append and merges them with the points of the series, keeping the greatest abcises.
+	 * The points are merged to new columns, the columns being read are not rewritten.
+	 */
+	private void merge(double[] xs, double[] ys, int offset, int length){
+		
+		double[] batchX = new double[length], batchY = new double[length];
+		System.arraycopy(xs, offset, batchX, 0, length);
+		System.arraycopy(ys, offset, batchY, 0, length);
+		sort(batchX, batchY, length);
+		
+		int total = size+length, keep = Math.min(total, this.xs.length);
+		double[] mergedX = new double[this.xs.length], mergedY = new double[this.ys.length];
+		
+		//Merges from the greatest abcises down, the points of the series come first when abcises are equal
+		int series = size-1, batch = length-1;
+		for(int k=keep-1; k>=0; k--){
+			if(batch<0 || (series>=0 && getX(series)>batchX[batch])){
+				mergedX[k] = getX(series); mergedY[k] = getY(series--);
+			} else {
+				mergedX[k] = batchX[batch]; mergedY[k] = batchY[batch--];
+			}
+		}
+		
+		this.xs = mergedX;
+		this.ys = mergedY;
+		head = 0;
+		size = keep;
+		
+	}
+	
+	/**
+	 * Discards the oldest points that are out of the retention window.
+	 */
+	private void retain(){
+		
+		if(Double.isInfinite(window) || size==0) return;
+		
+		double limit = getX(size-1)-window;
+		int discard = 0;
+		while(discard<size && getX(discard)<limit) discard++;
+		
+		head = position(head, discard);
+		size -= discard;
+		
+	}
+	
+	/**
+	 * A view of a range of columns that are not rewritten.
+	 */
+	private static class View extends Series {
+		
+		private final double[] xs, ys;
+		private final int offset, size;
+		
+		View(double[] xs, double[] ys, int offset, int size) {
+			this.xs = xs;
+			this.ys = ys;
+			this.offset = offset;
+			this.size = size;
+		}
+		
+		@Override
+		public int size() { return size; }
+		
+		@Override
+		public double getX(int index) { return xs[offset+index]; }
+		
+		@Override
+		public double getY(int index) { return ys[offset+index]; }
+		
+		@Override
+		public void getXs(int from, int to, double[] dest, int offset) { System.arraycopy(xs, this.offset+from, dest, offset, to-from); }
+		
+		@Override
+		public void getYs(int from, int to, double[] dest, int offset) { System.arraycopy(ys, this.offset+from, dest, offset, to-from); }
+		
+	}
+	
+	/**
+	 * 
+	 * @param xs The abcises
+	 * @param offset The index of the first abcises to check
+	 * @param length The number of abcises to check
+	 * @return True if the abcises are in ascending order
+	 */
+	private static boolean isSorted(double[] xs, int offset, int length){
+		for(int i=offset+1; i<offset+length; i++)
+			if(xs[i]<xs[i-1]) return false;
+		return true;
+	}
+	
+}
@@ -0,0 +1,203 @@
+package mgraphic.functions;
+
+import java.awt.geom.Point2D;
+
+/**
+ * A sequence of coordinates stored by columns, abcises and ordinates are kept apart so that
+ * no object has to be allocated by point.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public abstract class Series {
+	
+	/**
+	 * 
+	 * @return The number of points in the series
+	 */
+	public abstract int size();
+	
+	/**
+	 * 
+	 * @param index The point index
+	 * @return The abcises of the point at index
+	 */
+	public abstract double getX(int index);
+	
+	/**
+	 * 
+	 * @param index The point index
+	 * @return The ordinate of the point at index
+	 */
+	public abstract double getY(int index);
+	
+	/**
+	 * Copies abcises to an array.
+	 * 
+	 * @param from The index of the first point to copy
+	 * @param to The index after the last point to copy
+	 * @param dest The array to where the abcises are copied
+	 * @param offset The position in dest of the first abcises
+	 */
+	public void getXs(int from, int to, double[] dest, int offset){
+		for(int i=from; i<to; i++)
+			dest[offset++] = getX(i);
+	}
+	
+	/**
+	 * Copies ordinates to an array.
+	 * 
+	 * @param from The index of the first point to copy
+	 * @param to The index after the last point to copy
+	 * @param dest The array to where the ordinates are copied
+	 * @param offset The position in dest of the first ordinate
+	 */
+	public void getYs(int from, int to, double[] dest, int offset){
+		for(int i=from; i<to; i++)
+			dest[offset++] = getY(i);
+	}
+	
+	/**
+	 * 
+	 * @return True if points may be added to the series after it is created
+	 */
+	public boolean isMutable() { return false; }
+	
+	/**
+	 * 
+	 * @return True if the points are kept in the heap, false if they are read from elsewhere when used
+	 */
+	public boolean isInHeap() { return true; }
+	
+	/**
+	 * 
+	 * @return A series with the points in this series at the moment, this series if it is not mutable
+	 */
+	public Series snapshot() { return this; }
+	
+	/**
+	 * The points must be sorted by abcises.
+	 * 
+	 * @param x The abcises to search
+	 * @return The index of the first point whose abcises is not lower than x, size if there is none
+	 */
+	public int lowerBound(double x){
+		int low = 0, high = size();
+		while(low<high){
+			int middle = (low+high)>>>1;
+			if(getX(middle)<x) low = middle+1;
+			else high = middle;
+		}
+		return low;
+	}
+	
+	/**
+	 * The points must be sorted by abcises.
+	 * 
+	 * @param x The abcises to search
+	 * @return The index of the first point whose abcises is greater than x, size if there is none
+	 */
+	public int upperBound(double x){
+		int low = 0, high = size();
+		while(low<high){
+			int middle = (low+high)>>>1;
+			if(getX(middle)<=x) low = middle+1;
+			else high = middle;
+		}
+		return low;
+	}
+	
+	/**
+	 * Creates a series from a set of points keeping their order.
+	 * 
+	 * @param points The points to copy
+	 * @param singlePrecision True if the coordinates should be kept as float false if as double
+	 * @return The series holding the coordinates of points
+	 */
+	public static Series valueOf(Point2D[] points, boolean singlePrecision){
+		
+		if(points == null) throw new IllegalArgumentException();
+		
+		double[] xs = new double[points.length];
+		double[] ys = new double[points.length];
+		
+		for(int i=0; i<points.length; i++){
+			xs[i] = points[i].getX();
+			ys[i] = points[i].getY();
+		}
+		
+		return valueOf(xs, ys, singlePrecision);
+		
+	}
+	
+	/**
+	 * Creates a series from the columns xs and ys.
+	 * 
+	 * @param xs The abcises, kept by the series if singlePrecision is false
+	 * @param ys The ordinates, kept by the series if singlePrecision is false
+	 * @param singlePrecision True if the coordinates should be kept as float false if as double
+	 * @return The series holding the coordinates
+	 */
+	public static Series valueOf(double[] xs, double[] ys, boolean singlePrecision){
+		return singlePrecision?new FloatSeries(xs, ys):new DoubleSeries(xs, ys);
+	}
+	
+	/**
+	 * 
+	 * @param xs The abcises
+	 * @param length The number of abcises to check
+	 * @return True if the first length abcises are in ascending order
+	 */
+	public static boolean isSorted(double[] xs, int length){
+		for(int i=1; i<length; i++)
+			if(xs[i]<xs[i-1]) return false;
+		return true;
+	}
+	
+	/**
+	 * Sorts the points by abcises in place, points with the same abcises keep their relative order.
+	 * The sort is skipped if the abcises are already sorted.
+	 * 
+	 * @param xs The abcises
+	 * @param ys The ordinates, moved along with the abcises
+	 * @param length The number of points to sort
+	 */
+	public static void sort(double[] xs, double[] ys, int length){
+		
+		if(xs.length<length || ys.length<length) throw new IllegalArgumentException();
+		if(isSorted(xs, length)) return;
+		
+		double[] srcX = xs, srcY = ys;
+		double[] dstX = new double[length], dstY = new double[length];
+		
+		//Bottom up merge sort, stable as the comparator sort used before
+		for(int width=1; width<length; width*=2){
+			
+			for(int low=0; low<length; low+=2*width){
+				
+				int middle = Math.min(low+width, length), high = Math.min(low+2*width, length);
+				int left = low, right = middle;
+				
+				for(int k=low; k<high; k++){
+					if(left<middle && (right>=high || !(srcX[right]<srcX[left]))){
+						dstX[k] = srcX[left]; dstY[k] = srcY[left++];
+					} else {
+						dstX[k] = srcX[right]; dstY[k] = srcY[right++];
+					}
+				}
+				
+			}
+			
+			double[] swap = srcX; srcX = dstX; dstX = swap;
+			swap = srcY; srcY = dstY; dstY = swap;
+			
+		}
+		
+		if(srcX != xs){
+			System.arraycopy(srcX, 0, xs, 0, length);
+			System.arraycopy(srcY, 0, ys, 0, length);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,68 @@
+package mgraphic.functions;
+
+import java.util.Arrays;
+
+/**
+ * Collects coordinates into growing primitive columns.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class SeriesBuilder {
+	
+	private double[] xs;
+	private double[] ys;
+	private int size;
+	
+	/**
+	 * 
+	 * @param capacity The number of points expected
+	 */
+	public SeriesBuilder(int capacity) {
+		if(capacity<0) throw new IllegalArgumentException();
+		this.xs = new double[Math.max(capacity, 16)];
+		this.ys = new double[xs.length];
+	}
+	
+	/**
+	 * Adds a point to the end of the columns.
+	 * 
+	 * @param x The abcises
+	 * @param y The ordinate
+	 */
+	public void add(double x, double y){
+		if(size==xs.length){
+			int capacity = size+(size>>1);
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+		}
+		xs[size] = x;
+		ys[size++] = y;
+	}
+	
+	/**
+	 * 
+	 * @return The number of points added
+	 */
+	public int size() { return size; }
+	
+	/**
+	 * 
+	 * @return The abcises added, trimmed to size
+	 */
+	public double[] getXs() { return xs.length==size?xs:Arrays.copyOf(xs, size); }
+	
+	/**
+	 * 
+	 * @return The ordinates added, trimmed to size
+	 */
+	public double[] getYs() { return ys.length==size?ys:Arrays.copyOf(ys, size); }
+	
+	/**
+	 * 
+	 * @param singlePrecision True if the coordinates should be kept as float false if as double
+	 * @return A series with the points added
+	 */
+	public Series toSeries(boolean singlePrecision){ return Series.valueOf(getXs(), getYs(), singlePrecision); }
+	
+}
@@ -0,0 +1,309 @@
+package mgraphic.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mgraphic.functions.SeriesBuilder;
+
+/**
+ * Reads functions from a file of comma separated values.
+ * The first column has abcises and each column after it has the ordinates of a function, until another column 
+ * named x, not between quotes, which has the abcises of the columns after it. The optional first line has the names of the columns, 
+ * the separator is the one of comma, semicolon or tab that is most found in the first line.
+ * The fields that are empty or are not numbers leave the point out.
+ * Big files are divided in chunks by lines that are read in parallel.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class CsvReader {
+	
+	/**
+	 * The name of the columns with abcises.
+	 */
+	public static final String X = "x";
+	
+	private static final int BUFFER = 1<<20;
+	private static final long MIN_CHUNK = 4<<20;
+	private static final byte[] SEPARATORS = {',', ';', '\t'};
+	
+	private final File file;
+	
+	private byte separator;
+	private String[] names;
+	private boolean[] abcises;
+	
+	/**
+	 * 
+	 * @param file The file to read
+	 */
+	public CsvReader(File file) {
+		if(file == null) throw new IllegalArgumentException();
+		this.file = file;
+	}
+	
+	/**
+	 * 
+	 * @return The functions in the file, in the order of the columns, their names are null if the file has no names 
+	 * and their colors are null
+	 * @throws IOException Covers file not found, file in use by another process...
+	 */
+	public FunctionData[] read() throws IOException {
+		
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		
+		try {
+			
+			final FileChannel channel = input.getChannel();
+			final long start = readHeader(channel), size = channel.size();
+			final int chunks = (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), (size-start)/MIN_CHUNK));
+			final SeriesBuilder[][] columns = new SeriesBuilder[chunks][];
+			
+			if(chunks == 1){
+				columns[0] = parse(channel, start, size);
+			} else {
+				
+				ExecutorService executor = Executors.newFixedThreadPool(chunks);
+				
+				try {
+					
+					List<Future<SeriesBuilder[]>> results = new ArrayList<Future<SeriesBuilder[]>>(chunks);
+					
+					for(int chunk=0; chunk<chunks; chunk++){
+						final long from = start+(size-start)*chunk/chunks, to = start+(size-start)*(chunk+1)/chunks;
+						results.add(executor.submit(new Callable<SeriesBuilder[]>() {
+							@Override
+							public SeriesBuilder[] call() throws IOException { return parse(channel, from, to); }
+						}));
+					}
+					
+					for(int chunk=0; chunk<chunks; chunk++)
+						columns[chunk] = results.get(chunk).get();
+					
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while reading "+file);
+				} catch (ExecutionException e) {
+					if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+					if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+					if(e.getCause() instanceof Error) throw (Error) e.getCause();
+					throw new IllegalStateException(e.getCause());
+				} finally {
+					executor.shutdownNow();
+				}
+				
+			}
+			
+			return join(columns);
+			
+		} finally {
+			input.close();
+		}
+		
+	}
+	
+	/**
+	 * Reads the first line to find the separator and the columns.
+	 * 
+	 * @return The position of the first line with points
+	 */
+	private long readHeader(FileChannel channel) throws IOException {
+		
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER);
+		while(channel.read(buffer, buffer.position())>0 && buffer.hasRemaining() && indexOf(buffer.array(), '\n', 0, buffer.position())<0);
+		
+		byte[] bytes = buffer.array();
+		int length = indexOf(bytes, '\n', 0, buffer.position());
+		if(length<0) length = buffer.position();
+		
+		int most = -1;
+		separator = SEPARATORS[0];
+		for(byte candidate : SEPARATORS){
+			int count = 0;
+			for(int i=0; i<length; i++)
+				if(bytes[i]==candidate) count++;
+			if(count>most){ most = count; separator = candidate; }
+		}
+		
+		List<Boolean> quoted = new ArrayList<Boolean>();
+		List<String> fields = split(new String(bytes, 0, length, "UTF-8"), (char) separator, quoted);
+		boolean header = false;
+		for(String field : fields)
+			if(field.length()>0)
+				try{ Double.parseDouble(field); }catch(NumberFormatException e){ header = true; }
+		
+		names = header?fields.toArray(new String[fields.size()]):new String[fields.size()];
+		abcises = new boolean[fields.size()];
+		abcises[0] = true;
+		for(int i=1; i<names.length; i++)
+			abcises[i] = X.equalsIgnoreCase(names[i]) && !quoted.get(i);
+		
+		return header?Math.min(length+1, channel.size()):0;
+		
+	}
+	
+	/**
+	 * Parses the lines that start from from, inclusive, to to, exclusive.
+	 * 
+	 * @return The points of each column of ordinates
+	 */
+	private SeriesBuilder[] parse(FileChannel channel, long from, long to) throws IOException {
+		
+		SeriesBuilder[] columns = new SeriesBuilder[abcises.length];
+		int capacity = (int) Math.min(1<<20, (to-from)/(4*abcises.length)+16);
+		for(int i=0; i<columns.length; i++)
+			if(!abcises[i]) columns[i] = new SeriesBuilder(capacity);
+		
+		byte[] bytes = new byte[BUFFER];
+		//The chunks after the first start at the line after the byte before from, which belongs to the chunk before
+		long position = from>0?from-1:0;
+		int length = 0, line = 0, scan = 0;
+		boolean skip = from>0, end = false;
+		
+		while(true){
+			
+			int newline = indexOf(bytes, '\n', scan, length);
+			
+			if(newline<0){
+				
+				if(end){
+					if(!skip && line<length && position+line<to) parseLine(bytes, line, length, columns);
+					break;
+				}
+				
+				System.arraycopy(bytes, line, bytes, 0, length-line);
+				position += line;
+				length -= line;
+				scan = length;
+				line = 0;
+				
+				if(length==bytes.length){
+					byte[] grown = new byte[bytes.length*2];
+					System.arraycopy(bytes, 0, grown, 0, length);
+					bytes = grown;
+				}
+				
+				int read = channel.read(ByteBuffer.wrap(bytes, length, bytes.length-length), position+length);
+				if(read<0) end = true;
+				else length += read;
+				continue;
+				
+			}
+			
+			if(skip) skip = false;
+			else if(position+line>=to) break;
+			else parseLine(bytes, line, newline, columns);
+			
+			line = scan = newline+1;
+			
+		}
+		
+		return columns;
+		
+	}
+	
+	private void parseLine(byte[] bytes, int from, int to, SeriesBuilder[] columns){
+		
+		double x = Double.NaN;
+		
+		for(int column=0; column<columns.length; column++){
+			
+			int end = from;
+			while(end<to && bytes[end]!=separator) end++;
+			
+			double value = Decimal.parse(bytes, from, end);
+			if(abcises[column]) x = value;
+			else if(x==x && value==value) columns[column].add(x, value);
+			
+			if(end>=to) break;
+			from = end+1;
+			
+		}
+		
+	}
+	
+	private FunctionData[] join(SeriesBuilder[][] chunks){
+		
+		List<FunctionData> functions = new ArrayList<FunctionData>();
+		
+		for(int column=0; column<abcises.length; column++){
+			
+			if(abcises[column]) continue;
+			
+			int size = 0;
+			for(SeriesBuilder[] chunk : chunks)
+				size += chunk[column].size();
+			
+			double[] xs, ys;
+			if(chunks.length==1){
+				xs = chunks[0][column].getXs();
+				ys = chunks[0][column].getYs();
+			} else {
+				xs = new double[size];
+				ys = new double[size];
+				int offset = 0;
+				for(SeriesBuilder[] chunk : chunks){
+					System.arraycopy(chunk[column].getXs(), 0, xs, offset, chunk[column].size());
+					System.arraycopy(chunk[column].getYs(), 0, ys, offset, chunk[column].size());
+					offset += chunk[column].size();
+				}
+			}
+			
+			functions.add(new FunctionData(names[column], null, xs, ys));
+			
+		}
+		
+		return functions.toArray(new FunctionData[functions.size()]);
+		
+	}
+	
+	/**
+	 * Splits a line by the separators that are not between quotes.
+	 * 
+	 * @param fieldsQuoted Gets whether each field had quotes
+	 */
+	private static List<String> split(String line, char separator, List<Boolean> fieldsQuoted){
+		
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false, hadQuotes = false;
+		
+		for(int i=0; i<line.length(); i++){
+			char c = line.charAt(i);
+			if(c=='"'){
+				if(quoted && i+1<line.length() && line.charAt(i+1)=='"'){ field.append(c); i++; }
+				else quoted = !quoted;
+				hadQuotes = true;
+			}
+			else if(c==separator && !quoted){
+				fields.add(field.toString().trim());
+				fieldsQuoted.add(hadQuotes);
+				field.setLength(0);
+				hadQuotes = false;
+			}
+			else field.append(c);
+		}
+		
+		fields.add(field.toString().trim());
+		fieldsQuoted.add(hadQuotes);
+		return fields;
+		
+	}
+	
+	private static int indexOf(byte[] bytes, int b, int from, int to){
+		for(int i=from; i<to; i++)
+			if(bytes[i]==b) return i;
+		return -1;
+	}
+	
+}
@@ -0,0 +1,164 @@
+package mgraphic.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import mgraphic.functions.Function;
+import mgraphic.functions.Series;
+
+/**
+ * Writes functions to a file of comma separated values, in the format read by {@link CsvReader}.
+ * The functions with the same abcises share a column x, the others have a column x each. The first line has the 
+ * names of the columns, the names of the functions that are x are written between quotes to not be read as abcises.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class CsvWriter {
+	
+	private static final int BUFFER = 1<<20;
+	private static final int BLOCK = 4096;
+	private static final byte SEPARATOR = ',';
+	
+	private final File file;
+	
+	private FileChannel channel;
+	private byte[] bytes;
+	private int length;
+	
+	/**
+	 * 
+	 * @param file The file to write, it is replaced if it exists
+	 */
+	public CsvWriter(File file) {
+		if(file == null) throw new IllegalArgumentException();
+		this.file = file;
+	}
+	
+	/**
+	 * Writes the functions and closes the file.
+	 * 
+	 * @param functions The functions to write
+	 * @throws IOException Covers file in use by other process...
+	 */
+	public void write(Iterable<Function> functions) throws IOException {
+		
+		List<List<Function>> groups = new ArrayList<List<Function>>();
+		List<Series> abcises = new ArrayList<Series>();
+		List<Series> ordinates = new ArrayList<Series>();
+		
+		for(Function function : functions){
+			Series series = function.getSeries().snapshot();
+			int group = 0;
+			while(group<groups.size() && !sameAbcises(abcises.get(group), series)) group++;
+			if(group==groups.size()){
+				groups.add(new ArrayList<Function>());
+				abcises.add(series);
+			}
+			groups.get(group).add(function);
+			ordinates.add(series);
+		}
+		
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		
+		try {
+			
+			output.setLength(0);
+			channel = output.getChannel();
+			bytes = new byte[BUFFER];
+			length = 0;
+			
+			int rows = 0, columns = 0;
+			for(int group=0; group<groups.size(); group++){
+				if(group>0) bytes[length++] = SEPARATOR;
+				writeName(CsvReader.X, false);
+				for(Function function : groups.get(group)){
+					bytes[length++] = SEPARATOR;
+					writeName(function.getName(), true);
+				}
+				rows = Math.max(rows, abcises.get(group).size());
+				columns += groups.get(group).size()+1;
+			}
+			bytes[length++] = '\n';
+			
+			//The columns of each block of rows are copied from the series together
+			Series[] series = new Series[columns];
+			boolean[] isAbcises = new boolean[columns];
+			double[][] block = new double[columns][BLOCK];
+			for(int group=0, column=0, function=0; group<groups.size(); group++){
+				isAbcises[column] = true;
+				series[column++] = abcises.get(group);
+				for(int i=0; i<groups.get(group).size(); i++)
+					series[column++] = ordinates.get(function++);
+			}
+			
+			for(int from=0; from<rows; from+=BLOCK){
+				
+				int to = Math.min(rows, from+BLOCK);
+				
+				for(int column=0; column<columns; column++){
+					int end = Math.min(to, series[column].size());
+					if(end<=from) continue;
+					if(isAbcises[column]) series[column].getXs(from, end, block[column], 0);
+					else series[column].getYs(from, end, block[column], 0);
+				}
+				
+				for(int row=from; row<to; row++){
+					for(int column=0; column<columns; column++){
+						if(length>BUFFER-Decimal.MAX_LENGTH-2) flush();
+						if(column>0) bytes[length++] = SEPARATOR;
+						if(row<series[column].size()) length = Decimal.format(block[column][row-from], bytes, length);
+					}
+					bytes[length++] = '\n';
+				}
+				
+			}
+			
+			flush();
+			
+		} finally {
+			channel = null;
+			bytes = null;
+			output.close();
+		}
+		
+	}
+	
+	private static boolean sameAbcises(Series a, Series b){
+		if(a.size() != b.size()) return false;
+		for(int i=0; i<a.size(); i++)
+			if(Double.doubleToLongBits(a.getX(i)) != Double.doubleToLongBits(b.getX(i))) return false;
+		return true;
+	}
+	
+	/**
+	 * Writes a name in a line, between quotes if it has quotes or separators or if it is the name of a function and 
+	 * would be read as abcises.
+	 */
+	private void writeName(String name, boolean function) throws IOException {
+		
+		name = name.replace('\r', ' ').replace('\n', ' ');
+		if((function && CsvReader.X.equalsIgnoreCase(name.trim())) || name.indexOf('"')>=0 || name.indexOf(SEPARATOR)>=0 || name.indexOf(';')>=0 || name.indexOf('\t')>=0) 
+			name = "\""+name.replace("\"", "\"\"")+"\"";
+		
+		byte[] text = name.getBytes("UTF-8");
+		if(length+text.length+2>BUFFER) flush();
+		if(text.length+2>BUFFER) throw new IOException("The name "+name+" is too long");
+		System.arraycopy(text, 0, bytes, length, text.length);
+		length += text.length;
+		
+	}
+	
+	private void flush() throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		length = 0;
+	}
+	
+}
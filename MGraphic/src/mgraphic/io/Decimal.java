@@ -0,0 +1,392 @@
+package mgraphic.io;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+
+/**
+ * Parses and formats decimal numbers as ASCII bytes without allocating objects for the common cases, numbers with 
+ * up to 18 significant digits, the others go through Double.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+class Decimal {
+	
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	
+	/**
+	 * The powers of ten exactly representable as doubles.
+	 */
+	private static final double[] POWERS = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	
+	/**
+	 * The largest integer whose neighbours are all representable as doubles.
+	 */
+	private static final long EXACT = 1L<<53;
+	
+	/**
+	 * The digits after the first 18 significant digits are not kept in the mantissa.
+	 */
+	private static final long DIGITS = 100000000000000000L;
+	
+	/**
+	 * The powers of five from 5^MIN_POWER to 5^MAX_POWER, normalized to 128 bits, high and low halves.
+	 */
+	private static final int MIN_POWER = -342;
+	private static final int MAX_POWER = 308;
+	private static final long[] POWERS_OF_FIVE = new long[2*(MAX_POWER-MIN_POWER+1)];
+	
+	static {
+		BigInteger five = BigInteger.valueOf(5), mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+		for(int q=MIN_POWER; q<=MAX_POWER; q++){
+			BigInteger power;
+			if(q<0){
+				//The quotient is rounded up, as 10^q is approximated from above when it is not exact
+				BigInteger divisor = five.pow(-q);
+				int bits = divisor.bitLength();
+				power = BigInteger.ONE.shiftLeft(q>=-27?bits+127:2*bits+128).divide(divisor).add(BigInteger.ONE);
+			} else 
+				power = five.pow(q);
+			power = power.bitLength()>128?power.shiftRight(power.bitLength()-128):power.shiftLeft(128-power.bitLength());
+			POWERS_OF_FIVE[2*(q-MIN_POWER)] = power.shiftRight(64).longValue();
+			POWERS_OF_FIVE[2*(q-MIN_POWER)+1] = power.and(mask).longValue();
+		}
+	}
+	
+	/**
+	 * The powers of ten from 10^-K_MIN to 10^-K_MAX, as 126 bits rounded up, high and low 63 bits.
+	 */
+	private static final int K_MIN = -324;
+	private static final int K_MAX = 292;
+	private static final long[] POWERS_OF_TEN = new long[2*(K_MAX-K_MIN+1)];
+	private static final long MASK_63 = (1L<<63)-1;
+	private static final long C_MIN = 1L<<52;
+	private static final int Q_MIN = -1074;
+	
+	static {
+		BigInteger ten = BigInteger.TEN, mask = BigInteger.valueOf(MASK_63);
+		for(int k=K_MIN; k<=K_MAX; k++){
+			int power = -k, shift = 125-(int) (power*913124641741L>>38);
+			BigInteger g;
+			if(power>=0) g = shift>=0?ten.pow(power).shiftLeft(shift):ten.pow(power).shiftRight(-shift);
+			else g = BigInteger.ONE.shiftLeft(shift).divide(ten.pow(-power));
+			g = g.add(BigInteger.ONE);
+			POWERS_OF_TEN[2*(k-K_MIN)] = g.shiftRight(63).longValue();
+			POWERS_OF_TEN[2*(k-K_MIN)+1] = g.and(mask).longValue();
+		}
+	}
+	
+	/**
+	 * The maximum number of bytes written by format.
+	 */
+	static final int MAX_LENGTH = 32;
+	
+	private Decimal() {}
+	
+	/**
+	 * Parses a number, the spaces and quotes around it are ignored.
+	 * When the digits and the power of ten are both exact as doubles the result is their product or quotient, 
+	 * otherwise it is computed from the 128 bits product of the digits by the power of ten (Eisel-Lemire), 
+	 * both are correctly rounded as the one of Double.parseDouble.
+	 * 
+	 * @param bytes The text
+	 * @param from The index of the first byte
+	 * @param to The index after the last byte
+	 * @return The number, NaN if the text is empty or not a number
+	 */
+	static double parse(byte[] bytes, int from, int to){
+		
+		while(from<to && isBlank(bytes[from])) from++;
+		while(to>from && isBlank(bytes[to-1])) to--;
+		if(from==to) return Double.NaN;
+		
+		int i = from;
+		boolean negative = bytes[i]=='-';
+		if(negative || bytes[i]=='+') i++;
+		
+		long mantissa = 0;
+		int exponent = 0;
+		boolean digits = false, exact = true;
+		
+		for(; i<to; i++){
+			int digit = bytes[i]-'0';
+			if(digit<0 || digit>9) break;
+			digits = true;
+			if(mantissa<DIGITS) mantissa = mantissa*10+digit;
+			else { exponent++; exact &= digit==0; }
+		}
+		
+		if(i<to && bytes[i]=='.')
+			for(i++; i<to; i++){
+				int digit = bytes[i]-'0';
+				if(digit<0 || digit>9) break;
+				digits = true;
+				if(mantissa<DIGITS){ mantissa = mantissa*10+digit; exponent--; }
+				else exact &= digit==0;
+			}
+		
+		if(digits && i<to && (bytes[i]=='e' || bytes[i]=='E')){
+			int j = i+1;
+			boolean negativeExponent = j<to && bytes[j]=='-';
+			if(j<to && (bytes[j]=='-' || bytes[j]=='+')) j++;
+			int power = 0;
+			boolean powerDigits = false;
+			for(; j<to; j++){
+				int digit = bytes[j]-'0';
+				if(digit<0 || digit>9) break;
+				powerDigits = true;
+				if(power<100000) power = power*10+digit;
+			}
+			if(powerDigits){
+				exponent += negativeExponent?-power:power;
+				i = j;
+			}
+		}
+		
+		if(digits && i==to && exact){
+			
+			double value;
+			
+			if(mantissa==0 || exponent<MIN_POWER) value = 0;
+			else if(exponent>MAX_POWER) value = Double.POSITIVE_INFINITY;
+			else if(mantissa<=EXACT && exponent>=-22 && exponent<=22) 
+				value = exponent<0?mantissa/POWERS[-exponent]:mantissa*POWERS[exponent];
+			else value = multiply(mantissa, exponent);
+			
+			if(value==value) return negative?-value:value;
+			
+		}
+		
+		try{
+			return Double.parseDouble(new String(bytes, from, to-from, ASCII));
+		}catch(NumberFormatException e){
+			return Double.NaN;
+		}
+		
+	}
+	
+	/**
+	 * Eisel-Lemire, from "Number Parsing at a Gigabyte per Second" by Daniel Lemire.
+	 * 
+	 * @param mantissa The digits, positive
+	 * @param exponent The power of ten, from MIN_POWER to MAX_POWER
+	 * @return The double nearest to mantissa*10^exponent, NaN if it can not be decided or is subnormal
+	 */
+	private static double multiply(long mantissa, int exponent){
+		
+		int zeros = Long.numberOfLeadingZeros(mantissa);
+		long digits = mantissa<<zeros;
+		int index = 2*(exponent-MIN_POWER);
+		
+		long high = multiplyHigh(digits, POWERS_OF_FIVE[index]);
+		long low = digits*POWERS_OF_FIVE[index];
+		
+		if((high & 0x1FF)==0x1FF && lessUnsigned(low+digits, low)){
+			long middle = multiplyHigh(digits, POWERS_OF_FIVE[index+1]);
+			long sum = low+middle;
+			if(lessUnsigned(sum, low)) high++;
+			if(sum+1==0 && (high & 0x1FF)==0x1FF && lessUnsigned(low+digits, low)) return Double.NaN;
+			low = sum;
+		}
+		
+		int upper = (int) (high>>>63);
+		long significand = high>>>(upper+9);
+		zeros += 1^upper;
+		
+		if(low==0 && (high & 0x1FF)==0 && (significand & 3)==1) return Double.NaN;
+		
+		significand += significand & 1;
+		significand >>>= 1;
+		if(significand>=EXACT){
+			significand = EXACT>>>1;
+			zeros--;
+		}
+		
+		long biased = (((217706L*exponent)>>16)+1024+63)-zeros;
+		if(biased<1 || biased>2046) return Double.NaN;
+		
+		return Double.longBitsToDouble((significand & ~(EXACT>>>1)) | biased<<52);
+		
+	}
+	
+	/**
+	 * 
+	 * @return The high 64 bits of the unsigned product of a by b
+	 */
+	private static long multiplyHigh(long a, long b){
+		long a0 = a & 0xFFFFFFFFL, a1 = a>>>32, b0 = b & 0xFFFFFFFFL, b1 = b>>>32;
+		long p01 = a0*b1, p10 = a1*b0;
+		long middle = ((a0*b0)>>>32)+(p01 & 0xFFFFFFFFL)+(p10 & 0xFFFFFFFFL);
+		return a1*b1+(p01>>>32)+(p10>>>32)+(middle>>>32);
+	}
+	
+	private static boolean lessUnsigned(long a, long b){ return a+Long.MIN_VALUE < b+Long.MIN_VALUE; }
+	
+	private static boolean isBlank(byte b){ return b==' ' || b=='\t' || b=='"' || b=='\r'; }
+	
+	/**
+	 * Formats a number with the fewest digits that parse back to it.
+	 * 
+	 * @param value The number
+	 * @param bytes The array to where the text is written, it must have MAX_LENGTH bytes from offset
+	 * @param offset The index of the first byte to write
+	 * @return The index after the last byte written
+	 */
+	static int format(double value, byte[] bytes, int offset){
+		
+		long bits = Double.doubleToRawLongBits(value);
+		int biased = (int) (bits>>>52) & 0x7FF;
+		long fraction = bits & ((1L<<52)-1);
+		
+		if(biased==0x7FF){
+			String text = fraction!=0?"NaN":value>0?"Infinity":"-Infinity";
+			for(int i=0; i<text.length(); i++)
+				bytes[offset++] = (byte) text.charAt(i);
+			return offset;
+		}
+		
+		if(bits<0) bytes[offset++] = '-';
+		
+		if(biased==0){
+			if(fraction==0){
+				bytes[offset++] = '0';
+				return offset;
+			}
+			return fraction<3?shortest(Q_MIN, 10*fraction, -1, bytes, offset):shortest(Q_MIN, fraction, 0, bytes, offset);
+		}
+		
+		int shift = -Q_MIN+1-biased;
+		long significand = C_MIN | fraction;
+		
+		if(shift>0 && shift<53){
+			long integer = significand>>shift;
+			if(integer<<shift == significand) return write(integer, 0, bytes, offset);
+		}
+		
+		return shortest(-shift, significand, 0, bytes, offset);
+		
+	}
+	
+	/**
+	 * Schubfach, from "The Schubfach way to render doubles" by Raffaello Giulietti, writes the decimal with the fewest 
+	 * digits in the rounding interval of significand*2^exponent, the closest one if there are several.
+	 */
+	private static int shortest(int exponent, long significand, int adjustment, byte[] bytes, int offset){
+		
+		int odd = (int) significand & 1;
+		long middle = significand<<2, right = middle+2, left;
+		int k;
+		
+		if(significand != C_MIN | exponent == Q_MIN){
+			left = middle-2;
+			k = (int) (exponent*661971961083L>>41);
+		} else {
+			left = middle-1;
+			k = (int) (exponent*661971961083L-274743187321L>>41);
+		}
+		
+		int h = exponent+(int) (-k*913124641741L>>38)+2;
+		int index = 2*(k-K_MIN);
+		long g1 = POWERS_OF_TEN[index], g0 = POWERS_OF_TEN[index+1];
+		
+		long vb = roundOdd(g1, g0, middle<<h);
+		long vbl = roundOdd(g1, g0, left<<h);
+		long vbr = roundOdd(g1, g0, right<<h);
+		
+		long s = vb>>2;
+		
+		if(s>=100){
+			long sp10 = 10*multiplyHigh(s, 115292150460684698L<<4);
+			long tp10 = sp10+10;
+			boolean upin = vbl+odd <= sp10<<2;
+			boolean wpin = (tp10<<2)+odd <= vbr;
+			if(upin != wpin) return write(upin?sp10:tp10, -k, bytes, offset);
+		}
+		
+		long t = s+1;
+		boolean uin = vbl+odd <= s<<2;
+		boolean win = (t<<2)+odd <= vbr;
+		if(uin != win) return write(uin?s:t, -(k+adjustment), bytes, offset);
+		
+		long comparison = vb-(s+t<<1);
+		return write(comparison<0 || comparison==0 && (s & 1)==0?s:t, -(k+adjustment), bytes, offset);
+		
+	}
+	
+	private static long roundOdd(long g1, long g0, long cp){
+		long x1 = multiplyHigh(g0, cp);
+		long y0 = g1*cp;
+		long y1 = multiplyHigh(g1, cp);
+		long z = (y0>>>1)+x1;
+		long vbp = y1+(z>>>63);
+		return vbp | ((z & MASK_63)+MASK_63)>>>63;
+	}
+
+	
+	/**
+	 * Writes digits/10^places, in scientific notation if it is shorter and out of [10^-3, 10^7[ as in Double.toString.
+	 */
+	private static int write(long digits, int places, byte[] bytes, int offset){
+		
+		while(digits!=0 && digits%10==0){
+			digits /= 10;
+			places--;
+		}
+		
+		int length = 1;
+		for(long rest=digits/10; rest!=0; rest/=10) length++;
+		
+		int exponent = length-1-places;
+		int plain = places<=0?length-places:places<length?length+1:places+2;
+		int scientific = length+(length>1?1:0)+2+(exponent<0?1:0)+(Math.abs(exponent)>=100?2:Math.abs(exponent)>=10?1:0);
+		
+		if((exponent<-3 || exponent>=7) && scientific<plain){
+			offset = writeDigits(digits, length, length-1, bytes, offset);
+			bytes[offset++] = 'E';
+			if(exponent<0){
+				bytes[offset++] = '-';
+				exponent = -exponent;
+			}
+			return writeDigits(exponent, exponent>=100?3:exponent>=10?2:1, 0, bytes, offset);
+		}
+		
+		if(places<=0){
+			offset = writeDigits(digits, length, 0, bytes, offset);
+			for(; places<0; places++) bytes[offset++] = '0';
+			return offset;
+		}
+		
+		if(places>=length){
+			bytes[offset++] = '0';
+			bytes[offset++] = '.';
+			for(int i=length; i<places; i++) bytes[offset++] = '0';
+			return writeDigits(digits, length, 0, bytes, offset);
+		}
+		
+		return writeDigits(digits, length, places, bytes, offset);
+		
+	}
+	
+	/**
+	 * Writes the length digits of a number, with a point before the last places digits if places is positive.
+	 */
+	private static int writeDigits(long digits, int length, int places, byte[] bytes, int offset){
+		
+		int end = offset+length+(places>0?1:0);
+		
+		for(int i=end-1, written=0; i>=offset; i--, written++){
+			if(places>0 && written==places) bytes[i] = '.';
+			else {
+				bytes[i] = (byte) ('0'+digits%10);
+				digits /= 10;
+			}
+		}
+		
+		return end;
+		
+	}
+	
+}
@@ -0,0 +1,77 @@
+package mgraphic.io;
+
+import java.awt.Color;
+
+/**
+ * The columns, name and color of a function read from a file, before it is added to a graphic.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class FunctionData {
+	
+	private final String name;
+	private final Color color;
+	private final double[] xs;
+	private final double[] ys;
+	private final int skippedRows;
+	
+	/**
+	 * 
+	 * @param name The function name
+	 * @param color The function color, null if the file does not specify one
+	 * @param xs The abcises
+	 * @param ys The ordinates
+	 */
+	public FunctionData(String name, Color color, double[] xs, double[] ys) {
+		this(name, color, xs, ys, 0);
+	}
+	
+	/**
+	 * 
+	 * @param name The function name
+	 * @param color The function color, null if the file does not specify one
+	 * @param xs The abcises
+	 * @param ys The ordinates
+	 * @param skippedRows The number of rows of the file left out because they were not a point
+	 */
+	public FunctionData(String name, Color color, double[] xs, double[] ys, int skippedRows) {
+		if(xs == null || ys == null || xs.length != ys.length || skippedRows<0) throw new IllegalArgumentException();
+		this.name = name;
+		this.color = color;
+		this.xs = xs;
+		this.ys = ys;
+		this.skippedRows = skippedRows;
+	}
+	
+	/**
+	 * 
+	 * @return The function name
+	 */
+	public String getName() { return name; }
+	
+	/**
+	 * 
+	 * @return The function color, null if the file does not specify one
+	 */
+	public Color getColor() { return color; }
+	
+	/**
+	 * 
+	 * @return The abcises
+	 */
+	public double[] getXs() { return xs; }
+	
+	/**
+	 * 
+	 * @return The ordinates
+	 */
+	public double[] getYs() { return ys; }
+	
+	/**
+	 * 
+	 * @return The number of rows of the file left out because they were not a point, 0 if the function was read whole
+	 */
+	public int getSkippedRows() { return skippedRows; }
+	
+}
@@ -0,0 +1,176 @@
+package mgraphic.io;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes images as png files, 8 bits by channel, with alpha if the image has it.
+ * Each row is written as its difference to the row above, which is zero for most of the rows of a chart, 
+ * and compressed with the fastest deflate level, so the files are written a few times faster than by ImageIO 
+ * and are usually smaller. The compressed rows are written in chunks as they are ready, the whole file is never in memory.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class PngFile {
+	
+	public static final String EXTENSION = ".png";
+	
+	private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	private static final byte[] HEADER = {'I', 'H', 'D', 'R'};
+	private static final byte[] DATA = {'I', 'D', 'A', 'T'};
+	private static final byte[] END = {'I', 'E', 'N', 'D'};
+	private static final byte FILTER_UP = 2;
+	private static final int CHUNK = 1<<16;
+	
+	private PngFile() {}
+	
+	/**
+	 * 
+	 * @param file The file to where the image is written, it is replaced if it exists
+	 * @param image The image to write
+	 * @throws IOException Covers file in use by another process, no space left...
+	 */
+	public static void write(File file, BufferedImage image) throws IOException {
+		
+		if(file == null) throw new IllegalArgumentException();
+		
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file), CHUNK+12);
+		
+		try{
+			write(out, image);
+		} finally {
+			out.close();
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @param out The stream to where the image is written, it is not closed
+	 * @param image The image to write
+	 * @throws IOException If the stream can not be written
+	 */
+	public static void write(OutputStream out, BufferedImage image) throws IOException {
+		
+		if(out == null || image == null) throw new IllegalArgumentException();
+		
+		int width = image.getWidth(), height = image.getHeight();
+		boolean alpha = image.getColorModel().hasAlpha();
+		int channels = alpha?4:3;
+		if((long) width*channels+1 > Integer.MAX_VALUE) throw new IllegalArgumentException();
+		
+		//The pixels of these types are kept as the packed colors returned by getRGB
+		boolean packed = image.getType()==BufferedImage.TYPE_INT_RGB || image.getType()==BufferedImage.TYPE_INT_ARGB;
+		
+		CRC32 crc = new CRC32();
+		byte[] header = new byte[13];
+		putInt(header, 0, width);
+		putInt(header, 4, height);
+		header[8] = 8;
+		header[9] = (byte) (alpha?6:2);
+		
+		out.write(SIGNATURE);
+		writeChunk(out, HEADER, header, header.length, crc);
+		
+		int[] pixels = new int[width];
+		byte[] row = new byte[width*channels], above = new byte[width*channels], filtered = new byte[width*channels+1];
+		byte[] compressed = new byte[CHUNK];
+		int length = 0;
+		filtered[0] = FILTER_UP;
+		
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		
+		try{
+			
+			for(int y=0; y<=height; y++){
+				
+				if(y<height){
+					
+					if(packed) image.getRaster().getDataElements(0, y, width, 1, pixels);
+					else image.getRGB(0, y, width, 1, pixels, 0, width);
+					
+					for(int x=0, i=0; x<width; x++){
+						int pixel = pixels[x];
+						row[i++] = (byte) (pixel>>16);
+						row[i++] = (byte) (pixel>>8);
+						row[i++] = (byte) pixel;
+						if(alpha) row[i++] = (byte) (pixel>>>24);
+					}
+					
+					for(int i=0; i<row.length; i++)
+						filtered[i+1] = (byte) (row[i]-above[i]);
+					
+					byte[] swap = above;
+					above = row;
+					row = swap;
+					
+					deflater.setInput(filtered);
+					
+				} else deflater.finish();
+				
+				while(y<height?!deflater.needsInput():!deflater.finished()){
+					length += deflater.deflate(compressed, length, CHUNK-length);
+					if(length==CHUNK || deflater.finished() && length>0){
+						writeChunk(out, DATA, compressed, length, crc);
+						length = 0;
+					}
+				}
+				
+			}
+			
+		} finally {
+			deflater.end();
+		}
+		
+		writeChunk(out, END, compressed, 0, crc);
+		out.flush();
+		
+	}
+	
+	/**
+	 * 
+	 * @param out The stream to where the chunk is written
+	 * @param type The chunk type
+	 * @param data The chunk data
+	 * @param length The number of bytes of data written
+	 * @param crc The crc used to check the chunk
+	 * @throws IOException If the stream can not be written
+	 */
+	private static void writeChunk(OutputStream out, byte[] type, byte[] data, int length, CRC32 crc) throws IOException {
+		
+		byte[] number = new byte[4];
+		
+		putInt(number, 0, length);
+		out.write(number);
+		out.write(type);
+		out.write(data, 0, length);
+		
+		crc.reset();
+		crc.update(type);
+		crc.update(data, 0, length);
+		putInt(number, 0, (int) crc.getValue());
+		out.write(number);
+		
+	}
+	
+	/**
+	 * 
+	 * @param bytes The array to where the number is written
+	 * @param offset The position of the first byte
+	 * @param value The number written big endian
+	 */
+	private static void putInt(byte[] bytes, int offset, int value){
+		bytes[offset] = (byte) (value>>>24);
+		bytes[offset+1] = (byte) (value>>>16);
+		bytes[offset+2] = (byte) (value>>>8);
+		bytes[offset+3] = (byte) value;
+	}
+	
+}
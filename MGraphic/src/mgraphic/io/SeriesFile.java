@@ -0,0 +1,261 @@
+package mgraphic.io;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import mgraphic.functions.DoubleSeries;
+import mgraphic.functions.MappedSeries;
+import mgraphic.functions.Series;
+
+/**
+ * A binary file with a function, opened by mapping it in memory so that the points are not read until used.
+ * All the values are little-endian, the file has a header
+ * <pre>
+ * int    magic "MGSF"
+ * int    version
+ * int    flags, 1 if the points are sorted by abcises
+ * int    color (ARGB)
+ * long   number of points
+ * double xMin, xMax, yMin, yMax
+ * int    length of the name
+ * byte[] name in UTF-8, followed by padding to a multiple of 8 bytes
+ * </pre>
+ * followed by the column of the abcises and the column of the ordinates, as doubles.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class SeriesFile {
+	
+	/**
+	 * The extension of the series files.
+	 */
+	public static final String EXTENSION = ".mgs";
+	
+	private static final int MAGIC = 'M' | 'G'<<8 | 'S'<<16 | 'F'<<24;
+	private static final int VERSION = 1;
+	private static final int SORTED = 1;
+	private static final int HEADER = 60;
+	private static final int BUFFER = 1<<16;
+	
+	private final String name;
+	private final Color color;
+	private final double xMin;
+	private final double xMax;
+	private final double yMin;
+	private final double yMax;
+	private final Series series;
+	
+	private SeriesFile(String name, Color color, double xMin, double xMax, double yMin, double yMax, Series series) {
+		this.name = name;
+		this.color = color;
+		this.xMin = xMin;
+		this.xMax = xMax;
+		this.yMin = yMin;
+		this.yMax = yMax;
+		this.series = series;
+	}
+	
+	/**
+	 * Opens a file, only the header is read, the columns are mapped.
+	 * If the file does not declare its points sorted they are checked, and sorted in the heap if needed.
+	 * 
+	 * @param file The file to open
+	 * @return The function in the file
+	 * @throws IOException Covers file not found, file not in the format...
+	 */
+	public static SeriesFile open(File file) throws IOException {
+		
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		
+		try {
+			
+			FileChannel channel = input.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+			read(channel, header, 0);
+			
+			if(header.getInt(0) != MAGIC) throw new IOException(file+" is not a series file");
+			if(header.getInt(4) != VERSION) throw new IOException(file+" has an unsupported version "+header.getInt(4));
+			
+			int flags = header.getInt(8);
+			Color color = new Color(header.getInt(12), true);
+			long size = header.getLong(16);
+			int nameLength = header.getInt(56);
+			
+			long xPosition = align(HEADER+(long) nameLength);
+			if(size<0 || size>Integer.MAX_VALUE || nameLength<0 || xPosition+size*16>channel.size()) 
+				throw new IOException(file+" is truncated or corrupted");
+			
+			ByteBuffer name = ByteBuffer.allocate(nameLength);
+			read(channel, name, HEADER);
+			
+			Series series = new MappedSeries(channel, xPosition, xPosition+size*8, (int) size);
+			
+			if((flags & SORTED) == 0 && !isSorted(series)){
+				double[] xs = new double[series.size()], ys = new double[series.size()];
+				series.getXs(0, xs.length, xs, 0);
+				series.getYs(0, ys.length, ys, 0);
+				Series.sort(xs, ys, xs.length);
+				series = new DoubleSeries(xs, ys);
+			}
+			
+			return new SeriesFile(new String(name.array(), "UTF-8"), color, 
+					header.getDouble(24), header.getDouble(32), header.getDouble(40), header.getDouble(48), series);
+			
+		} finally {
+			input.close();
+		}
+		
+	}
+	
+	/**
+	 * Writes a function to a file, it is replaced if it exists.
+	 * The function is written to a temporary file in the same directory that is then renamed to the file, so the file
+	 * is never truncated while it is mapped, e.g. when the function being written was opened from it. If the file is 
+	 * deleted but the temporary file can not be renamed the temporary file is kept and named in the exception.
+	 * 
+	 * @param file The file to write
+	 * @param name The function name
+	 * @param color The function color
+	 * @param series The points of the function, sorted by abcises
+	 * @throws IOException Covers file in use by other process...
+	 */
+	public static void write(File file, String name, Color color, Series series) throws IOException {
+		
+		series = series.snapshot();
+		int size = series.size();
+		byte[] nameBytes = name.getBytes("UTF-8");
+		double[] block = new double[BUFFER/8];
+		
+		double xMin = Double.POSITIVE_INFINITY, xMax = Double.NEGATIVE_INFINITY;
+		double yMin = Double.POSITIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+		for(int from=0; from<size; from+=block.length){
+			int to = Math.min(size, from+block.length);
+			series.getYs(from, to, block, 0);
+			for(int i=0; i<to-from; i++){
+				if(block[i]<yMin) yMin = block[i];
+				if(block[i]>yMax) yMax = block[i];
+			}
+		}
+		if(size>0){
+			xMin = series.getX(0);
+			xMax = series.getX(size-1);
+		}
+		
+		File directory = file.getAbsoluteFile().getParentFile();
+		File temporary = File.createTempFile("."+file.getName()+".", ".tmp", directory);
+		boolean keep = false;
+		RandomAccessFile output = new RandomAccessFile(temporary, "rw");
+		
+		try {
+			
+			FileChannel channel = output.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+			
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(SORTED).putInt(color.getRGB()).putLong(size);
+			buffer.putDouble(xMin).putDouble(xMax).putDouble(yMin).putDouble(yMax);
+			buffer.putInt(nameBytes.length);
+			buffer.flip();
+			write(channel, buffer);
+			
+			ByteBuffer padding = ByteBuffer.allocate((int) (align(HEADER+(long) nameBytes.length)-HEADER));
+			padding.put(nameBytes).rewind();
+			write(channel, padding);
+			
+			for(int column=0; column<2; column++)
+				for(int from=0; from<size; from+=block.length){
+					int to = Math.min(size, from+block.length);
+					if(column==0) series.getXs(from, to, block, 0);
+					else series.getYs(from, to, block, 0);
+					buffer.clear();
+					buffer.asDoubleBuffer().put(block, 0, to-from);
+					buffer.limit((to-from)*8);
+					write(channel, buffer);
+				}
+			
+			channel.force(true);
+			output.close();
+			
+			//Renaming over a mapped file fails on some systems, the file is then deleted first if it can be
+			keep = temporary.renameTo(file);
+			if(!keep && file.delete()){
+				//The points are then only in the temporary file, which is kept even if it can not be renamed
+				keep = true;
+				if(!temporary.renameTo(file)) throw new IOException("Could not rename "+temporary+" to "+file+
+						" after deleting it, the points are in "+temporary);
+			}
+			if(!keep) throw new IOException("Could not replace "+file+", it may be in use");
+			
+		} finally {
+			output.close();
+			if(!keep) temporary.delete();
+		}
+		
+	}
+	
+	private static long align(long position){ return (position+7) & ~7L; }
+	
+	private static boolean isSorted(Series series){
+		for(int i=1; i<series.size(); i++)
+			if(series.getX(i-1)>series.getX(i)) return false;
+		return true;
+	}
+	
+	private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining())
+			if(channel.read(buffer, position+buffer.position()) < 0) throw new IOException("Unexpected end of file");
+	}
+	
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+	}
+	
+	/**
+	 * 
+	 * @return The function name
+	 */
+	public String getName() { return name; }
+	
+	/**
+	 * 
+	 * @return The function color
+	 */
+	public Color getColor() { return color; }
+	
+	/**
+	 * 
+	 * @return The lowest abcises, infinite if there are no points
+	 */
+	public double getXMin() { return xMin; }
+	
+	/**
+	 * 
+	 * @return The highest abcises, infinite if there are no points
+	 */
+	public double getXMax() { return xMax; }
+	
+	/**
+	 * 
+	 * @return The lowest ordinate, infinite if there are no points
+	 */
+	public double getYMin() { return yMin; }
+	
+	/**
+	 * 
+	 * @return The highest ordinate, infinite if there are no points
+	 */
+	public double getYMax() { return yMax; }
+	
+	/**
+	 * 
+	 * @return The points, mapped from the file
+	 */
+	public Series getSeries() { return series; }
+	
+}
@@ -0,0 +1,251 @@
+package mgraphic.io;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import mgraphic.functions.Function;
+import mgraphic.functions.Series;
+import mgraphic.functions.SeriesBuilder;
+
+/**
+ * Appends functions to and reads them from .sim files, the text of {@link Function#toString()} by function
+ * <pre>
+ * Name:
+ * name
+ * Color:
+ * r255g0b0
+ * Points:
+ * Point2D.Double[x, y]
+ * ...
+ * </pre>
+ * The points are written from the series and read to columns by blocks, without a String by point.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class SimFile {
+	
+	/**
+	 * The extension of the files.
+	 */
+	public static final String EXTENSION = ".sim";
+	
+	private static final int BUFFER = 1<<16;
+	private static final int BLOCK = 1024;
+	private static final byte[] NAME = bytes("Name:");
+	private static final byte[] COLOR = bytes("Color:");
+	private static final byte[] POINTS = bytes("Points:");
+	private static final byte[] POINT = bytes("Point2D.Double[");
+	private static final byte[] SEPARATOR = bytes(", ");
+	
+	private SimFile() {}
+	
+	/**
+	 * Appends a function to the end of a file, the file is created if it does not exist.
+	 * 
+	 * @param file The file
+	 * @param function The function to append
+	 * @throws IOException Covers file in use by another process...
+	 */
+	public static void append(File file, Function function) throws IOException {
+		
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		
+		try {
+			
+			FileChannel channel = output.getChannel();
+			byte[] bytes = new byte[BUFFER];
+			int length = 0;
+			
+			//The functions written by previous versions do not end with a new line
+			if(channel.size()>0){
+				ByteBuffer last = ByteBuffer.allocate(1);
+				channel.read(last, channel.size()-1);
+				if(last.get(0)!='\n') bytes[length++] = '\n';
+			}
+			channel.position(channel.size());
+			
+			Color color = function.getColor();
+			byte[] header = ("Name:\n"+function.getName()+"\nColor:\nr"+color.getRed()+"g"+color.getGreen()+"b"+color.getBlue()
+					+"\nPoints:\n").getBytes("UTF-8");
+			if(header.length>BUFFER-length) bytes = new byte[header.length+BUFFER];
+			System.arraycopy(header, 0, bytes, length, header.length);
+			length += header.length;
+			
+			Series series = function.getSeries().snapshot();
+			double[] xs = new double[BLOCK], ys = new double[BLOCK];
+			
+			for(int from=0; from<series.size(); from+=BLOCK){
+				
+				int to = Math.min(series.size(), from+BLOCK);
+				series.getXs(from, to, xs, 0);
+				series.getYs(from, to, ys, 0);
+				
+				for(int i=0; i<to-from; i++){
+					if(length>bytes.length-POINT.length-SEPARATOR.length-2*Decimal.MAX_LENGTH-2){
+						length = flush(channel, bytes, length);
+					}
+					System.arraycopy(POINT, 0, bytes, length, POINT.length);
+					length = Decimal.format(xs[i], bytes, length+POINT.length);
+					System.arraycopy(SEPARATOR, 0, bytes, length, SEPARATOR.length);
+					length = Decimal.format(ys[i], bytes, length+SEPARATOR.length);
+					bytes[length++] = ']';
+					bytes[length++] = '\n';
+				}
+				
+			}
+			
+			flush(channel, bytes, length);
+			
+		} finally {
+			output.close();
+		}
+		
+	}
+	
+	/**
+	 * Reads all the functions in a file.
+	 * 
+	 * @param file The file
+	 * @return The functions in the order of the file
+	 * @throws IOException Covers file not found, file in use by another process...
+	 */
+	public static Function[] readAll(File file) throws IOException {
+		
+		FileInputStream input = new FileInputStream(file);
+		
+		try {
+			
+			FileChannel channel = input.getChannel();
+			List<Function> functions = new ArrayList<Function>();
+			
+			byte[] bytes = new byte[BUFFER];
+			int length = 0, line = 0, scan = 0;
+			boolean end = false;
+			
+			String name = null;
+			Color color = null;
+			SeriesBuilder points = null;
+			//The line expected, the name after Name: and the color after Color:
+			byte[] expected = null;
+			
+			while(true){
+				
+				int newline = scan;
+				while(newline<length && bytes[newline]!='\n') newline++;
+				
+				if(newline==length && !end){
+					System.arraycopy(bytes, line, bytes, 0, length-line);
+					length -= line;
+					scan = length;
+					line = 0;
+					if(length==bytes.length){
+						byte[] grown = new byte[bytes.length*2];
+						System.arraycopy(bytes, 0, grown, 0, length);
+						bytes = grown;
+					}
+					int read = channel.read(ByteBuffer.wrap(bytes, length, bytes.length-length));
+					if(read<0) end = true;
+					else length += read;
+					continue;
+				}
+				
+				int to = newline;
+				if(to>line && bytes[to-1]=='\r') to--;
+				
+				if(expected==NAME){
+					name = new String(bytes, line, to-line, "UTF-8");
+					expected = null;
+				} else if(expected==COLOR){
+					color = parseColor(bytes, line, to);
+					expected = null;
+				} else if(startsWith(bytes, line, to, POINT)){
+					if(points != null){
+						int separator = indexOf(bytes, ',', line+POINT.length, to);
+						int close = indexOf(bytes, ']', separator+1, to);
+						if(separator>=0 && close>=0)
+							points.add(Decimal.parse(bytes, line+POINT.length, separator), Decimal.parse(bytes, separator+1, close));
+					}
+				} else if(equals(bytes, line, to, NAME)){
+					add(functions, name, color, points);
+					name = null; color = null; points = null;
+					expected = NAME;
+				} else if(equals(bytes, line, to, COLOR)){
+					expected = COLOR;
+				} else if(equals(bytes, line, to, POINTS)){
+					points = new SeriesBuilder(BLOCK);
+				}
+				
+				if(newline==length) break;
+				line = scan = newline+1;
+				
+			}
+			
+			add(functions, name, color, points);
+			return functions.toArray(new Function[functions.size()]);
+			
+		} finally {
+			input.close();
+		}
+		
+	}
+	
+	private static void add(List<Function> functions, String name, Color color, SeriesBuilder points){
+		if(name == null || points == null) return;
+		double[] xs = points.getXs(), ys = points.getYs();
+		Series.sort(xs, ys, xs.length);
+		functions.add(new Function(Series.valueOf(xs, ys, false), name, color));
+	}
+	
+	/**
+	 * 
+	 * @return The color written as rRgGbB, null if the line is not a color
+	 */
+	private static Color parseColor(byte[] bytes, int from, int to){
+		int g = indexOf(bytes, 'g', from, to), b = indexOf(bytes, 'b', g+1, to);
+		if(from>=to || bytes[from]!='r' || g<0 || b<0) return null;
+		double red = Decimal.parse(bytes, from+1, g), green = Decimal.parse(bytes, g+1, b), blue = Decimal.parse(bytes, b+1, to);
+		if(!(red>=0 && red<=255 && green>=0 && green<=255 && blue>=0 && blue<=255)) return null;
+		return new Color((int) red, (int) green, (int) blue);
+	}
+	
+	private static int flush(FileChannel channel, byte[] bytes, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		return 0;
+	}
+	
+	private static boolean startsWith(byte[] bytes, int from, int to, byte[] prefix){
+		if(to-from<prefix.length) return false;
+		for(int i=0; i<prefix.length; i++)
+			if(bytes[from+i]!=prefix[i]) return false;
+		return true;
+	}
+	
+	private static boolean equals(byte[] bytes, int from, int to, byte[] text){
+		return to-from==text.length && startsWith(bytes, from, to, text);
+	}
+	
+	private static int indexOf(byte[] bytes, int b, int from, int to){
+		if(from<0) return -1;
+		for(int i=from; i<to; i++)
+			if(bytes[i]==b) return i;
+		return -1;
+	}
+	
+	private static byte[] bytes(String text){
+		byte[] bytes = new byte[text.length()];
+		for(int i=0; i<bytes.length; i++)
+			bytes[i] = (byte) text.charAt(i);
+		return bytes;
+	}
+	
+}
@@ -0,0 +1,290 @@
+package mgraphic.io;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jxl.Cell;
+import jxl.NumberCell;
+import jxl.Sheet;
+import jxl.Workbook;
+import jxl.WorkbookSettings;
+import jxl.read.biff.BiffException;
+
+/**
+ * Reads the functions saved in the sheets of an excel file 98-2003.
+ * Each sheet has the function name at the cell (1, 0), its color at (3, 0), and its abcises and ordinates in the columns 
+ * 0 and 1 from the row 2 on, the rows whose abcises or ordinate is not a number are skipped and counted, the empty rows 
+ * are skipped.
+ * The sheets are read by at most MAX_THREADS threads, each opens the file and jxl keeps all of it in memory.
+ * The sheets with the manifest written by {@link WorkbookWriter} at the cells (4, 0) to (7, 0) are parts of a function and 
+ * are joined again in the order of the parts.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class WorkbookReader {
+	
+	/**
+	 * The row of the first point of a sheet.
+	 */
+	public static final int FIRST_ROW = 2;
+	/**
+	 * The maximum number of threads reading the sheets, each keeps a copy of the file in memory.
+	 */
+	public static final int MAX_THREADS = 4;
+	
+	private final File file;
+	
+	/**
+	 * 
+	 * @param file The file to read
+	 */
+	public WorkbookReader(File file) {
+		if(file == null) throw new IllegalArgumentException();
+		this.file = file;
+	}
+	
+	/**
+	 * 
+	 * @return The settings used to open the file, the garbage collection jxl calls by sheet read is disabled
+	 */
+	public static WorkbookSettings getSettings(){
+		WorkbookSettings settings = new WorkbookSettings();
+		settings.setGCDisabled(true);
+		return settings;
+	}
+	
+	/**
+	 * 
+	 * @return The number of sheets in the file
+	 * @throws IOException Covers file not found exception, file in use by another process...
+	 * @throws BiffException Covers file format not recognizable
+	 */
+	public int getNumberOfSheets() throws IOException, BiffException {
+		Workbook workbook = Workbook.getWorkbook(file, getSettings());
+		try { return workbook.getNumberOfSheets(); }
+		finally { workbook.close(); }
+	}
+	
+	/**
+	 * Reads sheets of the file, when there is more than one sheet and more than one processor the sheets are divided
+	 * by up to MAX_THREADS threads that open the file each and read their sheets in parallel.
+	 * 
+	 * @param sheets The indexes of the sheets to read
+	 * @return The functions in the sheets, in the order of their first sheet
+	 * @throws IOException Covers file not found exception, file in use by another process...
+	 * @throws BiffException Covers file format not recognizable
+	 */
+	public FunctionData[] read(final int[] sheets) throws IOException, BiffException {
+		
+		final Part[] parts = new Part[sheets.length];
+		final int threads = Math.min(Math.min(sheets.length, Runtime.getRuntime().availableProcessors()), MAX_THREADS);
+		
+		if(threads <= 1){
+			read(sheets, 0, 1, parts);
+			return join(parts);
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		
+		try {
+			
+			List<Future<Object>> results = new ArrayList<Future<Object>>(threads);
+			
+			for(int thread=0; thread<threads; thread++){
+				final int first = thread;
+				results.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws IOException, BiffException {
+						read(sheets, first, threads, parts);
+						return null;
+					}
+				}));
+			}
+			
+			for(Future<Object> result : results)
+				result.get();
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading "+file);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			if(e.getCause() instanceof BiffException) throw (BiffException) e.getCause();
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		return join(parts);
+		
+	}
+	
+	/**
+	 * Opens the file and reads every step sheet from first.
+	 */
+	private void read(int[] sheets, int first, int step, Part[] parts) throws IOException, BiffException {
+		
+		Workbook workbook = Workbook.getWorkbook(file, getSettings());
+		
+		try {
+			for(int i=first; i<sheets.length; i+=step)
+				parts[i] = new Part(workbook.getSheet(sheets[i]));
+		} finally {
+			workbook.close();
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @param sheet The sheet to read
+	 * @return The function in the sheet, without the rows whose abcises or ordinate is not a number
+	 */
+	public static FunctionData read(Sheet sheet){
+		
+		Cell[] xColumn = sheet.getColumn(0);
+		Cell[] yColumn = sheet.getColumn(1);
+		
+		int rows = Math.max(0, Math.min(xColumn.length, yColumn.length)-FIRST_ROW);
+		double[] xs = new double[rows];
+		double[] ys = new double[rows];
+		int count = 0, skipped = 0;
+		
+		for(int row=FIRST_ROW; row<FIRST_ROW+rows; row++){
+			try{
+				xs[count] = getNumber(xColumn[row]);
+				ys[count] = getNumber(yColumn[row]);
+				count++;
+			}catch(NumberFormatException e){
+				//The empty rows are not counted, the columns of jxl are as long as the longest column of the sheet
+				if(xColumn[row].getContents().length()>0 || yColumn[row].getContents().length()>0) skipped++;
+			}
+		}
+		
+		if(count<rows){
+			double[] trimmedXs = new double[count], trimmedYs = new double[count];
+			System.arraycopy(xs, 0, trimmedXs, 0, count);
+			System.arraycopy(ys, 0, trimmedYs, 0, count);
+			xs = trimmedXs; ys = trimmedYs;
+		}
+		
+		return new FunctionData(sheet.getCell(1, 0).getContents(), new Color((int) getNumber(sheet.getCell(3, 0))), xs, ys, 
+				skipped);
+		
+	}
+	
+	/**
+	 * Joins the parts of each function, the parts of a function that were not read are left out.
+	 */
+	private static FunctionData[] join(Part[] parts){
+		
+		List<FunctionData> functions = new ArrayList<FunctionData>(parts.length);
+		List<Part[]> groups = new ArrayList<Part[]>(parts.length);
+		Map<String, Part[]> open = new HashMap<String, Part[]>();
+		
+		for(Part part : parts){
+			
+			if(part.parts==1){
+				functions.add(part.function);
+				groups.add(null);
+				continue;
+			}
+			
+			String key = part.parts+":"+part.function.getName();
+			Part[] group = open.get(key);
+			
+			//A part already seen starts another function with the same name
+			if(group == null || group[part.part-1] != null){
+				group = new Part[part.parts];
+				open.put(key, group);
+				functions.add(null);
+				groups.add(group);
+			}
+			
+			group[part.part-1] = part;
+			
+		}
+		
+		for(int i=0; i<groups.size(); i++)
+			if(groups.get(i) != null)
+				functions.set(i, concatenate(groups.get(i)));
+		
+		return functions.toArray(new FunctionData[functions.size()]);
+		
+	}
+	
+	private static FunctionData concatenate(Part[] parts){
+		
+		int length = 0, skippedRows = 0;
+		FunctionData first = null;
+		for(Part part : parts)
+			if(part != null){
+				length += part.function.getXs().length;
+				skippedRows += part.function.getSkippedRows();
+				if(first == null) first = part.function;
+			}
+		
+		double[] xs = new double[length], ys = new double[length];
+		int offset = 0;
+		for(Part part : parts)
+			if(part != null){
+				int partLength = part.function.getXs().length;
+				System.arraycopy(part.function.getXs(), 0, xs, offset, partLength);
+				System.arraycopy(part.function.getYs(), 0, ys, offset, partLength);
+				offset += partLength;
+			}
+		
+		return new FunctionData(first.getName(), first.getColor(), xs, ys, skippedRows);
+		
+	}
+	
+	/**
+	 * A sheet read, which may be one of the parts of a function.
+	 */
+	private static class Part {
+		
+		private final FunctionData function;
+		private final int part;
+		private final int parts;
+		
+		private Part(Sheet sheet){
+			this.function = read(sheet);
+			int part = 1, parts = 1;
+			if(sheet.getColumns()>7 && WorkbookWriter.PART_LABEL.equals(sheet.getCell(4, 0).getContents())){
+				try{
+					part = (int) getNumber(sheet.getCell(5, 0));
+					parts = (int) getNumber(sheet.getCell(7, 0));
+				}catch(NumberFormatException e){}
+				if(parts<1 || part<1 || part>parts) part = parts = 1;
+			}
+			this.part = part;
+			this.parts = parts;
+		}
+		
+	}
+	
+	/**
+	 * 
+	 * @param cell The cell to read
+	 * @return The value of a number cell or the contents of another cell parsed as a number
+	 * @throws NumberFormatException If the cell is not a number
+	 */
+	public static double getNumber(Cell cell){
+		if(cell instanceof NumberCell) return ((NumberCell) cell).getValue();
+		return Double.parseDouble(cell.getContents());
+	}
+	
+}
@@ -0,0 +1,116 @@
+package mgraphic.io;
+
+import java.io.File;
+import java.io.IOException;
+
+import jxl.Workbook;
+import jxl.WorkbookSettings;
+import jxl.write.Label;
+import jxl.write.Number;
+import jxl.write.WritableSheet;
+import jxl.write.WritableWorkbook;
+import jxl.write.WriteException;
+
+import mgraphic.functions.Function;
+import mgraphic.functions.Series;
+
+/**
+ * Writes functions to an excel file 98-2003 with number cells, in the format read by {@link WorkbookReader}.
+ * A function with more points than fit in a sheet continues in the following sheets, the first row of each sheet has
+ * the manifest "Parte" p "de" n at the cells (4, 0) to (7, 0) so that the reader can join the parts again.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class WorkbookWriter {
+	
+	/**
+	 * The maximum number of rows of a sheet of an excel file 98-2003.
+	 */
+	public static final int MAX_ROWS = 65536;
+	
+	/**
+	 * The maximum number of points in a sheet.
+	 */
+	public static final int POINTS_BY_SHEET = MAX_ROWS-WorkbookReader.FIRST_ROW;
+	
+	static final String NAME_LABEL = "Nome da fun\u00e7\u00e3o";
+	static final String COLOR_LABEL = "Cor (RGB)";
+	static final String PART_LABEL = "Parte";
+	static final String OF_LABEL = "de";
+	
+	private final File file;
+	
+	/**
+	 * 
+	 * @param file The file to write, it is replaced if it exists
+	 */
+	public WorkbookWriter(File file) {
+		if(file == null) throw new IllegalArgumentException();
+		this.file = file;
+	}
+	
+	/**
+	 * Writes the functions and closes the file.
+	 * 
+	 * @param functions The functions to write
+	 * @return The number of sheets written
+	 * @throws IOException Covers file in use by other process...
+	 * @throws WriteException
+	 */
+	public int write(Iterable<Function> functions) throws IOException, WriteException {
+		
+		WorkbookSettings settings = new WorkbookSettings();
+		settings.setGCDisabled(true);
+		settings.setUseTemporaryFileDuringWrite(true);
+		
+		WritableWorkbook workbook = Workbook.createWorkbook(file, settings);
+		
+		try {
+			
+			for(Function function : functions){
+				
+				Series series = function.getSeries().snapshot();
+				int parts = Math.max(1, (series.size()+POINTS_BY_SHEET-1)/POINTS_BY_SHEET);
+				String sheetName = function.getName().length()<20?function.getName():function.getName().substring(0, 20).concat("...");
+				
+				for(int part=0; part<parts; part++){
+					
+					WritableSheet sheet = workbook.createSheet(part==0?sheetName:sheetName+" ("+(part+1)+")", workbook.getNumberOfSheets());
+					
+					sheet.addCell(new Label(0, 0, NAME_LABEL));
+					sheet.addCell(new Label(1, 0, function.getName()));
+					sheet.addCell(new Label(2, 0, COLOR_LABEL));
+					sheet.addCell(new Number(3, 0, function.getColor().getRGB()));
+					
+					if(parts>1){
+						sheet.addCell(new Label(4, 0, PART_LABEL));
+						sheet.addCell(new Number(5, 0, part+1));
+						sheet.addCell(new Label(6, 0, OF_LABEL));
+						sheet.addCell(new Number(7, 0, parts));
+					}
+					
+					sheet.addCell(new Label(0, 1, "Abcissa"));
+					sheet.addCell(new Label(1, 1, "Ordenada"));
+					
+					int from = part*POINTS_BY_SHEET, to = Math.min(series.size(), from+POINTS_BY_SHEET);
+					
+					for(int i=from, row=WorkbookReader.FIRST_ROW; i<to; i++, row++){
+						sheet.addCell(new Number(0, row, series.getX(i)));
+						sheet.addCell(new Number(1, row, series.getY(i)));
+					}
+					
+				}
+				
+			}
+			
+			workbook.write();
+			return workbook.getNumberOfSheets();
+			
+		} finally {
+			workbook.close();
+		}
+		
+	}
+	
+}
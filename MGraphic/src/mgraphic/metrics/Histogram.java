@@ -0,0 +1,102 @@
+package mgraphic.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in buckets of powers of two nanoseconds, the bucket b has the durations from 2^(b-1) to 2^b-1.
+ * Durations can be recorded by several threads at the same time without locking.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public class Histogram {
+	
+	/**
+	 * The number of buckets, enough for any positive long.
+	 */
+	public static final int BUCKETS = 64;
+	
+	private final AtomicLongArray buckets;
+	private final AtomicLong count;
+	private final AtomicLong total;
+	private final AtomicLong max;
+	
+	public Histogram() {
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.count = new AtomicLong();
+		this.total = new AtomicLong();
+		this.max = new AtomicLong();
+	}
+	
+	/**
+	 * 
+	 * @param nanos The duration to record, negative durations are recorded as 0
+	 */
+	public void record(long nanos){
+		
+		if(nanos<0) nanos = 0;
+		
+		buckets.incrementAndGet(bucket(nanos));
+		count.incrementAndGet();
+		total.addAndGet(nanos);
+		
+		for(long current = max.get(); nanos>current && !max.compareAndSet(current, nanos); current = max.get());
+		
+	}
+	
+	/**
+	 * Records several durations measured together, each as their average.
+	 * 
+	 * @param nanos The total of the durations to record, negative totals are recorded as 0
+	 * @param count The number of durations
+	 */
+	public void record(long nanos, long count){
+		
+		if(count<=0) return;
+		if(nanos<0) nanos = 0;
+		
+		long average = nanos/count;
+		
+		buckets.addAndGet(bucket(average), count);
+		this.count.addAndGet(count);
+		total.addAndGet(nanos);
+		
+		for(long current = max.get(); average>current && !max.compareAndSet(current, average); current = max.get());
+		
+	}
+	
+	/**
+	 * 
+	 * @return The durations recorded so far, the values of a snapshot taken while durations are recorded may be 
+	 * slightly out of step with each other
+	 */
+	public HistogramSnapshot snapshot(){
+		
+		long[] copy = new long[BUCKETS];
+		for(int i=0; i<BUCKETS; i++)
+			copy[i] = buckets.get(i);
+		
+		return new HistogramSnapshot(count.get(), total.get(), max.get(), copy);
+		
+	}
+	
+	/**
+	 * Forgets the durations recorded.
+	 */
+	public void reset(){
+		for(int i=0; i<BUCKETS; i++)
+			buckets.set(i, 0);
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+	
+	/**
+	 * 
+	 * @param nanos A duration
+	 * @return The bucket of the duration
+	 */
+	static int bucket(long nanos){ return 64-Long.numberOfLeadingZeros(nanos); }
+	
+}
@@ -0,0 +1,108 @@
+package mgraphic.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The durations recorded by a histogram at some moment.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ * @see Histogram
+ */
+public class HistogramSnapshot {
+	
+	private final long count;
+	private final long totalNanos;
+	private final long maxNanos;
+	private final long[] buckets;
+	
+	/**
+	 * 
+	 * @param count The number of durations recorded
+	 * @param totalNanos The sum of the durations
+	 * @param maxNanos The longest duration
+	 * @param buckets The number of durations in each bucket, the array is kept
+	 */
+	@ConstructorProperties({"count", "totalNanos", "maxNanos", "buckets"})
+	public HistogramSnapshot(long count, long totalNanos, long maxNanos, long[] buckets) {
+		if(buckets == null || buckets.length != Histogram.BUCKETS) throw new IllegalArgumentException();
+		this.count = count;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+		this.buckets = buckets;
+	}
+	
+	/**
+	 * 
+	 * @return The number of durations recorded
+	 */
+	public long getCount() { return count; }
+	
+	/**
+	 * 
+	 * @return The sum of the durations in nanoseconds
+	 */
+	public long getTotalNanos() { return totalNanos; }
+	
+	/**
+	 * 
+	 * @return The longest duration in nanoseconds
+	 */
+	public long getMaxNanos() { return maxNanos; }
+	
+	/**
+	 * 
+	 * @return The mean duration in nanoseconds, 0 if none was recorded
+	 */
+	public double getMeanNanos() { return count==0?0:(double)totalNanos/count; }
+	
+	/**
+	 * 
+	 * @return The median duration in nanoseconds, at most twice the real one
+	 */
+	public long getP50Nanos() { return getPercentileNanos(50); }
+	
+	/**
+	 * 
+	 * @return The 90th percentile of the durations in nanoseconds, at most twice the real one
+	 */
+	public long getP90Nanos() { return getPercentileNanos(90); }
+	
+	/**
+	 * 
+	 * @return The 99th percentile of the durations in nanoseconds, at most twice the real one
+	 */
+	public long getP99Nanos() { return getPercentileNanos(99); }
+	
+	/**
+	 * 
+	 * @return The number of durations in each bucket, the bucket b has the durations from 2^(b-1) to 2^b-1 nanoseconds
+	 */
+	public long[] getBuckets() { return buckets.clone(); }
+	
+	/**
+	 * 
+	 * @param percentile The percentage of the durations, from 0 to 100
+	 * @return The upper bound of the bucket of the duration at the percentile, or the longest duration if lower, 
+	 * 0 if none was recorded
+	 */
+	public long getPercentileNanos(double percentile){
+		
+		if(percentile<0 || percentile>100) throw new IllegalArgumentException();
+		
+		long total = 0;
+		for(long bucket : buckets)
+			total += bucket;
+		
+		long rank = (long) Math.ceil(total*percentile/100), seen = 0;
+		
+		for(int b=0; b<buckets.length; b++){
+			seen += buckets[b];
+			if(seen>=rank && seen>0) return Math.min(maxNanos, b==0?0:(b==63?Long.MAX_VALUE:(1L<<b)-1));
+		}
+		
+		return 0;
+		
+	}
+	
+}
@@ -0,0 +1,155 @@
+package mgraphic.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The metrics recorded by the graphics: how long painting, evaluating mathematical functions and reading and writing 
+ * workbooks take and how many points are drawn.
+ * The metrics are only recorded if the system property mgraphic.metrics is true when this class is loaded, every 
+ * place that records them checks ENABLED first, which is a constant, so the disabled metrics cost nothing once compiled.
+ * When enabled the metrics are also registered in the platform MBean server as mgraphic:type=Metrics.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ */
+public final class Metrics {
+	
+	/**
+	 * The system property that enables the metrics.
+	 */
+	public static final String PROPERTY = "mgraphic.metrics";
+	/**
+	 * True if the metrics are recorded.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+	/**
+	 * The name of the metrics in the MBean server.
+	 */
+	public static final String OBJECT_NAME = "mgraphic:type=Metrics";
+	
+	/**
+	 * The durations of drawing the axes, their scales and the guide lines.
+	 */
+	public static final Histogram AXES = new Histogram();
+	/**
+	 * The durations of drawing the functions.
+	 */
+	public static final Histogram FUNCTIONS = new Histogram();
+	/**
+	 * The durations of drawing the layers and the mouse coordinates on the screen.
+	 */
+	public static final Histogram OVERLAY = new Histogram();
+	/**
+	 * The durations of the evaluations of mathematical functions. The evaluations of a block of abcises are timed 
+	 * together and recorded as that many evaluations of their average duration, so the maximum and the percentiles are 
+	 * those of the averages by block and not of single evaluations.
+	 */
+	public static final Histogram CALCULATE_FUNCTION = new Histogram();
+	/**
+	 * The durations of the workbooks loaded.
+	 */
+	public static final Histogram WORKBOOK_LOAD = new Histogram();
+	/**
+	 * The durations of the workbooks saved.
+	 */
+	public static final Histogram WORKBOOK_SAVE = new Histogram();
+	
+	private static final AtomicLong pointsDrawn = new AtomicLong();
+	private static final AtomicLong pointsCulled = new AtomicLong();
+	private static final AtomicLong pointsAggregated = new AtomicLong();
+	private static final AtomicLong workbookRowsRead = new AtomicLong();
+	private static final AtomicLong workbookBytesRead = new AtomicLong();
+	private static final AtomicLong workbookRowsWritten = new AtomicLong();
+	private static final AtomicLong workbookBytesWritten = new AtomicLong();
+	
+	static {
+		if(ENABLED){
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMXBean() {
+					@Override
+					public boolean isEnabled() { return ENABLED; }
+					@Override
+					public MetricsSnapshot getSnapshot() { return snapshot(); }
+					@Override
+					public void reset() { Metrics.reset(); }
+				}, new ObjectName(OBJECT_NAME));
+			} catch (JMException e) {
+				//Already registered by a copy of this class loaded by another class loader, the metrics are still recorded
+			}
+		}
+	}
+	
+	private Metrics() {}
+	
+	/**
+	 * 
+	 * @param drawn The number of points drawn by a paint, of the functions or of their levels of detail
+	 * @param culled The number of points of the functions outside the part of the graphic painted
+	 * @param aggregated The number of points of the functions inside the part painted that were drawn 
+	 * from a level of detail instead
+	 */
+	public static void recordPoints(long drawn, long culled, long aggregated){
+		pointsDrawn.addAndGet(drawn);
+		pointsCulled.addAndGet(culled);
+		pointsAggregated.addAndGet(aggregated);
+	}
+	
+	/**
+	 * 
+	 * @param rows The number of rows read
+	 * @param bytes The size of the workbook
+	 * @param nanos The time taken loading the workbook
+	 */
+	public static void recordWorkbookLoad(long rows, long bytes, long nanos){
+		workbookRowsRead.addAndGet(rows);
+		workbookBytesRead.addAndGet(bytes);
+		WORKBOOK_LOAD.record(nanos);
+	}
+	
+	/**
+	 * 
+	 * @param rows The number of rows written
+	 * @param bytes The size of the workbook, 0 if it is not written yet
+	 * @param nanos The time taken saving the workbook
+	 */
+	public static void recordWorkbookSave(long rows, long bytes, long nanos){
+		workbookRowsWritten.addAndGet(rows);
+		workbookBytesWritten.addAndGet(bytes);
+		WORKBOOK_SAVE.record(nanos);
+	}
+	
+	/**
+	 * 
+	 * @return The metrics recorded so far, all zero if the metrics are not enabled
+	 */
+	public static MetricsSnapshot snapshot(){
+		return new MetricsSnapshot(AXES.snapshot(), FUNCTIONS.snapshot(), OVERLAY.snapshot(), 
+				pointsDrawn.get(), pointsCulled.get(), pointsAggregated.get(), CALCULATE_FUNCTION.snapshot(), 
+				WORKBOOK_LOAD.snapshot(), workbookRowsRead.get(), workbookBytesRead.get(), 
+				WORKBOOK_SAVE.snapshot(), workbookRowsWritten.get(), workbookBytesWritten.get());
+	}
+	
+	/**
+	 * Forgets the metrics recorded.
+	 */
+	public static void reset(){
+		AXES.reset();
+		FUNCTIONS.reset();
+		OVERLAY.reset();
+		CALCULATE_FUNCTION.reset();
+		WORKBOOK_LOAD.reset();
+		WORKBOOK_SAVE.reset();
+		pointsDrawn.set(0);
+		pointsCulled.set(0);
+		pointsAggregated.set(0);
+		workbookRowsRead.set(0);
+		workbookBytesRead.set(0);
+		workbookRowsWritten.set(0);
+		workbookBytesWritten.set(0);
+	}
+	
+}
@@ -0,0 +1,29 @@
+package mgraphic.metrics;
+
+/**
+ * The metrics of the graphics as seen through JMX, registered as mgraphic:type=Metrics when the metrics are enabled.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ * @see Metrics
+ */
+public interface MetricsMXBean {
+	
+	/**
+	 * 
+	 * @return True if the metrics are being recorded
+	 */
+	public boolean isEnabled();
+	
+	/**
+	 * 
+	 * @return The metrics recorded so far
+	 */
+	public MetricsSnapshot getSnapshot();
+	
+	/**
+	 * Forgets the metrics recorded.
+	 */
+	public void reset();
+	
+}
@@ -0,0 +1,147 @@
+package mgraphic.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The metrics recorded at some moment.
+ * 
+ * @author Rafael Campos
+ * @version 0.0.1
+ * @see Metrics
+ */
+public class MetricsSnapshot {
+	
+	private final HistogramSnapshot axes;
+	private final HistogramSnapshot functions;
+	private final HistogramSnapshot overlay;
+	private final long pointsDrawn;
+	private final long pointsCulled;
+	private final long pointsAggregated;
+	private final HistogramSnapshot calculateFunction;
+	private final HistogramSnapshot workbookLoad;
+	private final long workbookRowsRead;
+	private final long workbookBytesRead;
+	private final HistogramSnapshot workbookSave;
+	private final long workbookRowsWritten;
+	private final long workbookBytesWritten;
+	
+	/**
+	 * 
+	 * @param axes The durations of drawing the axes
+	 * @param functions The durations of drawing the functions
+	 * @param overlay The durations of drawing the layers and the mouse coordinates on the screen
+	 * @param pointsDrawn The number of points drawn
+	 * @param pointsCulled The number of points of the functions outside the part of the graphic painted
+	 * @param pointsAggregated The number of points of the functions drawn from a level of detail instead
+	 * @param calculateFunction The durations of the evaluations of mathematical functions
+	 * @param workbookLoad The durations of the workbooks loaded
+	 * @param workbookRowsRead The number of rows read from workbooks
+	 * @param workbookBytesRead The size of the workbooks loaded
+	 * @param workbookSave The durations of the workbooks saved
+	 * @param workbookRowsWritten The number of rows written to workbooks
+	 * @param workbookBytesWritten The size of the workbooks written
+	 */
+	@ConstructorProperties({"axes", "functions", "overlay", "pointsDrawn", "pointsCulled", "pointsAggregated", "calculateFunction", 
+		"workbookLoad", "workbookRowsRead", "workbookBytesRead", "workbookSave", "workbookRowsWritten", "workbookBytesWritten"})
+	public MetricsSnapshot(HistogramSnapshot axes, HistogramSnapshot functions, HistogramSnapshot overlay, 
+			long pointsDrawn, long pointsCulled, long pointsAggregated, HistogramSnapshot calculateFunction, 
+			HistogramSnapshot workbookLoad, long workbookRowsRead, long workbookBytesRead, 
+			HistogramSnapshot workbookSave, long workbookRowsWritten, long workbookBytesWritten) {
+		this.axes = axes;
+		this.functions = functions;
+		this.overlay = overlay;
+		this.pointsDrawn = pointsDrawn;
+		this.pointsCulled = pointsCulled;
+		this.pointsAggregated = pointsAggregated;
+		this.calculateFunction = calculateFunction;
+		this.workbookLoad = workbookLoad;
+		this.workbookRowsRead = workbookRowsRead;
+		this.workbookBytesRead = workbookBytesRead;
+		this.workbookSave = workbookSave;
+		this.workbookRowsWritten = workbookRowsWritten;
+		this.workbookBytesWritten = workbookBytesWritten;
+	}
+	
+	/**
+	 * 
+	 * @return The durations of drawing the axes, their scales and the guide lines
+	 */
+	public HistogramSnapshot getAxes() { return axes; }
+	
+	/**
+	 * 
+	 * @return The durations of drawing the functions
+	 */
+	public HistogramSnapshot getFunctions() { return functions; }
+	
+	/**
+	 * 
+	 * @return The durations of drawing the layers and the mouse coordinates on the screen
+	 */
+	public HistogramSnapshot getOverlay() { return overlay; }
+	
+	/**
+	 * 
+	 * @return The number of points drawn, of the functions or of their levels of detail
+	 */
+	public long getPointsDrawn() { return pointsDrawn; }
+	
+	/**
+	 * 
+	 * @return The number of points of the functions not drawn because they were outside the part of the graphic painted
+	 */
+	public long getPointsCulled() { return pointsCulled; }
+	
+	/**
+	 * 
+	 * @return The number of points of the functions inside the part of the graphic painted that were not drawn 
+	 * because a level of detail was drawn instead
+	 */
+	public long getPointsAggregated() { return pointsAggregated; }
+	
+	/**
+	 * 
+	 * @return The durations of the evaluations of mathematical functions, their count is the number of evaluations. 
+	 * The evaluations sampled by blocks are recorded at the average duration of their block, so the maximum and the 
+	 * percentiles are not those of single evaluations
+	 */
+	public HistogramSnapshot getCalculateFunction() { return calculateFunction; }
+	
+	/**
+	 * 
+	 * @return The durations of the workbooks loaded
+	 */
+	public HistogramSnapshot getWorkbookLoad() { return workbookLoad; }
+	
+	/**
+	 * 
+	 * @return The number of rows read from workbooks
+	 */
+	public long getWorkbookRowsRead() { return workbookRowsRead; }
+	
+	/**
+	 * 
+	 * @return The size in bytes of the workbooks loaded
+	 */
+	public long getWorkbookBytesRead() { return workbookBytesRead; }
+	
+	/**
+	 * 
+	 * @return The durations of the workbooks saved
+	 */
+	public HistogramSnapshot getWorkbookSave() { return workbookSave; }
+	
+	/**
+	 * 
+	 * @return The number of rows written to workbooks
+	 */
+	public long getWorkbookRowsWritten() { return workbookRowsWritten; }
+	
+	/**
+	 * 
+	 * @return The size in bytes of the workbooks written, the workbooks of saveToWorkBook are written by the caller 
+	 * so they are not counted
+	 */
+	public long getWorkbookBytesWritten() { return workbookBytesWritten; }
+	
+}